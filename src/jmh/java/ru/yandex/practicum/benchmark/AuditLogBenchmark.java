@@ -0,0 +1,78 @@
+package ru.yandex.practicum.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.yandex.practicum.audit.AuditLog;
+import ru.yandex.practicum.audit.AuditProperties;
+import ru.yandex.practicum.model.Film;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость записи об изменении для потока запроса: синхронный log.info с toString() сущности
+ * против передачи события в AuditLog. Лог пишется в target/benchmark.log, число отброшенных
+ * событий печатается в конце итерации.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=src/jmh/logback-benchmark.xml")
+public class AuditLogBenchmark {
+
+    @Param({"ID", "FULL"})
+    private AuditProperties.Mode mode;
+
+    /**
+     * Имитация остальной работы запроса. При нулевой нагрузке очередь переполняется
+     * и замер показывает стоимость отбрасывания события.
+     */
+    @Param({"0", "2000"})
+    private long requestWork;
+
+    private AuditLog auditLog;
+    private Film film;
+
+    @Setup
+    public void setUp() {
+        AuditProperties properties = new AuditProperties();
+        properties.setMode(mode);
+        auditLog = new AuditLog(properties);
+        film = Fixtures.film(1);
+        film.setId(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        auditLog.close();
+        System.out.println("Пропущено событий аудита: " + auditLog.droppedCount());
+    }
+
+    @Benchmark
+    public void syncLog() {
+        Blackhole.consumeCPU(requestWork);
+        log.info("Добавлен фильм: {}", film);
+    }
+
+    @Benchmark
+    public void auditLog() {
+        Blackhole.consumeCPU(requestWork);
+        auditLog.record("Добавлен фильм", film.getId(), film);
+    }
+}
@@ -0,0 +1,146 @@
+package ru.yandex.practicum.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.audit.AuditLog;
+import ru.yandex.practicum.audit.AuditProperties;
+import ru.yandex.practicum.controller.FilmController;
+import ru.yandex.practicum.controller.JsonResponseCache;
+import ru.yandex.practicum.controller.UserController;
+import ru.yandex.practicum.exception.FilmNotFoundException;
+import ru.yandex.practicum.exception.GlobalExceptionHandler;
+import ru.yandex.practicum.feed.ChangeFeed;
+import ru.yandex.practicum.feed.FeedProperties;
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.service.BatchImporter;
+import ru.yandex.practicum.service.FilmSearchIndex;
+import ru.yandex.practicum.service.FilmService;
+import ru.yandex.practicum.service.UserService;
+import ru.yandex.practicum.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.storage.friend.InMemoryFriendStorage;
+import ru.yandex.practicum.storage.like.InMemoryLikeStorage;
+import ru.yandex.practicum.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.validation.ReflectiveEntityValidator;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Стоимость ответов 404 и 409 через MockMvc. Дополнительные кадры стека имитируют фильтры
+ * и обработку в Tomcat, которых в MockMvc нет: от глубины стека зависит цена исключения со стеком.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=src/jmh/logback-benchmark.xml")
+public class ErrorPathBenchmark {
+
+    private static final String UPDATE_MISSING_USER = "{\"id\":999999,\"email\":\"missing@example.com\","
+            + "\"login\":\"missing\",\"birthday\":\"2000-01-01\"}";
+
+    @Param({"0", "100"})
+    private int extraFrames;
+
+    private MockMvc mockMvc;
+    private ChangeFeed changeFeed;
+    private RequestBuilder missingFilm;
+    private RequestBuilder missingUserUpdate;
+    private RequestBuilder selfFriendship;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Fixtures.objectMapper();
+        AuditProperties auditProperties = new AuditProperties();
+        auditProperties.setMode(AuditProperties.Mode.OFF);
+        AuditLog auditLog = new AuditLog(auditProperties);
+        JsonResponseCache jsonCache = new JsonResponseCache(objectMapper, DataSize.ofMegabytes(16));
+        changeFeed = new ChangeFeed(new FeedProperties(), jsonCache::encode);
+        BatchImporter batchImporter = new BatchImporter(objectMapper,
+                new ReflectiveEntityValidator(Validation.buildDefaultValidatorFactory().getValidator()));
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        InMemoryLikeStorage likeStorage = new InMemoryLikeStorage();
+        User user = Fixtures.user(1);
+        userStorage.add(user);
+
+        FilmController filmController = new FilmController(new FilmService(filmStorage, userStorage, likeStorage,
+                batchImporter, new FilmSearchIndex()), objectMapper, auditLog, jsonCache, changeFeed);
+        UserController userController = new UserController(new UserService(userStorage, new InMemoryFriendStorage(),
+                batchImporter, filmStorage, likeStorage), objectMapper, auditLog, jsonCache, changeFeed);
+        mockMvc = MockMvcBuilders.standaloneSetup(filmController, userController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        missingFilm = get("/films/999999");
+        missingUserUpdate = put("/users").contentType(MediaType.APPLICATION_JSON).content(UPDATE_MISSING_USER);
+        selfFriendship = put("/users/" + user.getId() + "/friends/" + user.getId());
+    }
+
+    @TearDown
+    public void tearDown() {
+        changeFeed.close();
+    }
+
+    @Benchmark
+    public int notFound() throws Exception {
+        return perform(missingFilm, extraFrames);
+    }
+
+    @Benchmark
+    public int notFoundOnUpdate() throws Exception {
+        return perform(missingUserUpdate, extraFrames);
+    }
+
+    @Benchmark
+    public int conflict() throws Exception {
+        return perform(selfFriendship, extraFrames);
+    }
+
+    /**
+     * Исключение, которое раньше создавалось на каждый 404: со стеком.
+     */
+    @Benchmark
+    public RuntimeException exceptionWithStackTrace() {
+        return create(extraFrames, true);
+    }
+
+    @Benchmark
+    public RuntimeException stacklessException() {
+        return create(extraFrames, false);
+    }
+
+    private RuntimeException create(int depth, boolean withStackTrace) {
+        if (depth > 0) {
+            return create(depth - 1, withStackTrace);
+        }
+        return withStackTrace ? new RuntimeException("Фильм с id 999999 не найден") : new FilmNotFoundException(999999);
+    }
+
+    private int perform(RequestBuilder request, int depth) throws Exception {
+        if (depth > 0) {
+            return perform(request, depth - 1);
+        }
+        return mockMvc.perform(request).andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,82 @@
+package ru.yandex.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.storage.film.FilmQuery;
+import ru.yandex.practicum.storage.film.InMemoryFilmStorage;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выборка по диапазону даты выхода через индекс против фильтрации полного списка.
+ * Страницы по id с диапазоном: широкий (почти все фильмы) и узкий (один день выхода),
+ * глубоко в списке — стоимость не должна расти с размером диапазона.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilmQueryBenchmark {
+
+    private static final LocalDate FROM = LocalDate.of(1990, 1, 1);
+    private static final LocalDate TO = LocalDate.of(1990, 1, 31);
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private InMemoryFilmStorage storage;
+    private FilmQuery query;
+    private FilmQuery wideIdPage;
+    private FilmQuery narrowIdPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = new InMemoryFilmStorage();
+        for (int i = 1; i <= size; i++) {
+            storage.add(Fixtures.film(i));
+        }
+        query = new FilmQuery(FROM, TO, null, 120, FilmQuery.Sort.RELEASE_DATE, false, null, 50);
+        wideIdPage = new FilmQuery(null, null, 61, null, FilmQuery.Sort.ID, false, size / 2, 50);
+        narrowIdPage = new FilmQuery(FROM, FROM, null, null, FilmQuery.Sort.ID, false, size / 2, 50);
+    }
+
+    @Benchmark
+    public List<Film> indexed() {
+        return storage.find(query);
+    }
+
+    @Benchmark
+    public List<Film> idOrderWideRange() {
+        return storage.find(wideIdPage);
+    }
+
+    @Benchmark
+    public List<Film> idOrderNarrowRange() {
+        return storage.find(narrowIdPage);
+    }
+
+    @Benchmark
+    public List<Film> fullScan() {
+        return storage.getAll().stream()
+                .filter(query::matches)
+                .sorted(Comparator.comparing(Film::getReleaseDate).thenComparing(Film::getId))
+                .limit(50)
+                .toList();
+    }
+}
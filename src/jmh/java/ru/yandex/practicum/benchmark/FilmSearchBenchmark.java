@@ -0,0 +1,58 @@
+package ru.yandex.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.service.FilmSearchIndex;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilmSearchBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private FilmSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new FilmSearchIndex();
+        for (int i = 1; i <= size; i++) {
+            Film film = Fixtures.film(i);
+            film.setId(i);
+            index.index(i, () -> film);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> rareWord() {
+        return index.search("номер 4242", 20);
+    }
+
+    @Benchmark
+    public List<Integer> prefix() {
+        return index.search("фильм 12345", 20);
+    }
+
+    @Benchmark
+    public List<Integer> commonWords() {
+        return index.search("драма любви", 20);
+    }
+}
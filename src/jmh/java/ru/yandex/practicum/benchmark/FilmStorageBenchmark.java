@@ -0,0 +1,68 @@
+package ru.yandex.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.storage.film.InMemoryFilmStorage;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilmStorageBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private InMemoryFilmStorage storage;
+    private Film[] updates;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        storage = new InMemoryFilmStorage();
+        updates = new Film[size];
+        for (int i = 0; i < size; i++) {
+            Film film = storage.add(Fixtures.film(i));
+            Film update = Fixtures.film(i + size);
+            update.setId(film.getId());
+            updates[i] = update;
+        }
+    }
+
+    @Benchmark
+    public Film add() {
+        return storage.add(Fixtures.film(size));
+    }
+
+    @Benchmark
+    public Object update() {
+        return storage.update(updates[ThreadLocalRandom.current().nextInt(size)]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Film> getAll() {
+        return storage.getAll();
+    }
+
+    @Benchmark
+    public List<Film> getPage() {
+        return storage.getPage(ThreadLocalRandom.current().nextInt(size), 100);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.yandex.practicum.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+
+import java.time.LocalDate;
+
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static Film film(int i) {
+        Film film = new Film();
+        film.setName("Фильм номер " + i);
+        film.setDescription("Описание фильма " + i + ": драма о жизни, любви и выборе, снятая в разных городах");
+        film.setReleaseDate(LocalDate.of(1950, 1, 1).plusDays(i % 25_000));
+        film.setDuration(60 + i % 120);
+        return film;
+    }
+
+    static User user(int i) {
+        User user = new User();
+        user.setLogin("user" + i);
+        user.setEmail("user" + i + "@example.com");
+        user.setName("Пользователь " + i);
+        user.setBirthday(LocalDate.of(1960, 1, 1).plusDays(i % 15_000));
+        return user;
+    }
+
+    /**
+     * Настроен так же, как ObjectMapper Spring Boot: даты пишутся строками ISO-8601.
+     */
+    static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -0,0 +1,130 @@
+package ru.yandex.practicum.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import ru.yandex.practicum.FilmorateApplication;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочный тест: приложение запускается по очереди на потоках Tomcat и на виртуальных потоках,
+ * clients клиентов в течение seconds секунд добавляют пользователей. Журнал изменений включён,
+ * поэтому каждый запрос ждёт fsync и занимает поток обработки, как медленный клиент или хранилище.
+ *
+ * <pre>
+ * mvn -P benchmarks test-compile exec:exec -Dbenchmark.main="ru.yandex.practicum.benchmark.LoadTest 2000 10"
+ * </pre>
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %10s%n",
+                "threads", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "errors");
+        for (boolean virtual : new boolean[]{false, true}) {
+            Result result = run(virtual, clients, Duration.ofSeconds(seconds));
+            System.out.printf("%-10s %10d %10.0f %10.2f %10.2f %10.2f %10d%n",
+                    virtual ? "virtual" : "platform", result.latencies().length,
+                    result.latencies().length / (double) seconds,
+                    result.percentile(0.5), result.percentile(0.99), result.percentile(0.999), result.errors());
+        }
+        System.exit(0);
+    }
+
+    private static Result run(boolean virtual, int clients, Duration duration) throws Exception {
+        Path directory = Files.createTempDirectory("filmorate-load");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=warn",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "server.tomcat.max-connections=" + (clients + 100),
+                        "filmorate.audit.mode=off",
+                        "filmorate.rate-limit.enabled=false",
+                        "filmorate.persistence.enabled=true",
+                        "filmorate.persistence.directory=" + directory)
+                .run();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            return drive(URI.create("http://localhost:" + port + "/users"), clients, duration);
+        } finally {
+            context.close();
+            FileSystemUtils.deleteRecursively(directory);
+        }
+    }
+
+    private static Result drive(URI uri, int clients, Duration duration) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        AtomicInteger sequence = new AtomicInteger();
+        AtomicLong errors = new AtomicLong();
+        long[][] latencies = new long[clients][];
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < clients; client++) {
+                int index = client;
+                executor.execute(() -> {
+                    long[] own = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        int n = sequence.incrementAndGet();
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"load" + n
+                                        + "@example.com\",\"login\":\"load" + n + "\",\"birthday\":\"2000-01-01\"}"))
+                                .build();
+                        long started = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 201) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                            continue;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                        if (count == own.length) {
+                            own = Arrays.copyOf(own, count * 2);
+                        }
+                        own[count++] = System.nanoTime() - started;
+                    }
+                    latencies[index] = Arrays.copyOf(own, count);
+                });
+            }
+        }
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get());
+    }
+
+    private record Result(long[] latencies, long errors) {
+
+        double percentile(double quantile) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(quantile * latencies.length) - 1);
+            return latencies[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+}
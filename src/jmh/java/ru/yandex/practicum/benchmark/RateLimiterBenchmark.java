@@ -0,0 +1,71 @@
+package ru.yandex.practicum.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.ratelimit.RateLimitProperties;
+import ru.yandex.practicum.ratelimit.RateLimiter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Цена проверки лимита на запрос: все потоки от одного клиента (спор за одну корзину)
+ * и от множества разных клиентов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class RateLimiterBenchmark {
+
+    private RateLimiter limiter;
+    private String[] clients;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setPath("/films/**");
+        rule.setCapacity(1_000);
+        rule.setRefillPerSecond(1_000_000);
+        rule.setMaxConcurrent(10_000);
+        limiter = new RateLimiter("films", rule, 100_000, new SimpleMeterRegistry());
+        clients = new String[10_000];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = "10.0." + (i >> 8) + "." + (i & 0xFF);
+        }
+    }
+
+    @Benchmark
+    public long sameClient() {
+        return admit("10.0.0.1");
+    }
+
+    @Benchmark
+    public long manyClients() {
+        return admit(clients[ThreadLocalRandom.current().nextInt(clients.length)]);
+    }
+
+    private long admit(String client) {
+        if (!limiter.matches("POST", "/films")) {
+            return -1;
+        }
+        long wait = limiter.tryAcquire(client, System.nanoTime());
+        if (wait == 0 && limiter.tryEnter()) {
+            limiter.exit();
+        }
+        return wait;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.storage.like.InMemoryLikeStorage;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class RecommendationBenchmark {
+
+    private static final int FILMS = 100_000;
+    private static final int LIKES_PER_USER = 20;
+
+    @Param({"100000", "500000"})
+    private int users;
+
+    private InMemoryLikeStorage storage;
+    private int nextUser;
+
+    /**
+     * Популярность фильмов неравномерна: половина лайков приходится на первый процент каталога.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = new InMemoryLikeStorage();
+        Random random = new Random(42);
+        for (int userId = 1; userId <= users; userId++) {
+            for (int i = 0; i < LIKES_PER_USER; i++) {
+                int filmId = random.nextBoolean() ? 1 + random.nextInt(FILMS / 100) : 1 + random.nextInt(FILMS);
+                storage.addLike(filmId, userId);
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] similarUsers() {
+        nextUser = nextUser % users + 1;
+        return storage.getSimilarUsers(nextUser, 20);
+    }
+}
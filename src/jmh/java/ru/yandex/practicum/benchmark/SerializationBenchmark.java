@@ -0,0 +1,82 @@
+package ru.yandex.practicum.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.controller.JsonResponseCache;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Film film;
+    private User user;
+    private List<Film> films;
+    private byte[] filmJson;
+    private JsonResponseCache jsonCache;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Fixtures.objectMapper();
+        film = Fixtures.film(1);
+        film.setId(1);
+        user = Fixtures.user(1);
+        user.setId(1);
+        films = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Film next = Fixtures.film(i);
+            next.setId(i + 1);
+            films.add(next);
+        }
+        filmJson = objectMapper.writeValueAsBytes(film);
+        jsonCache = new JsonResponseCache(objectMapper, DataSize.ofMegabytes(64));
+    }
+
+    @Benchmark
+    public byte[] writeFilm() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(film);
+    }
+
+    @Benchmark
+    public byte[] writeUser() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] writeThousandFilms() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(films);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] writeThousandFilmsCached() {
+        return jsonCache.list(films).getBody();
+    }
+
+    @Benchmark
+    public Film readFilm() throws Exception {
+        return objectMapper.readValue(filmJson, Film.class);
+    }
+}
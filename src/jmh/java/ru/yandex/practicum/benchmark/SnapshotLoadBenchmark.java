@@ -0,0 +1,103 @@
+package ru.yandex.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.storage.persistence.BinarySnapshotFormat;
+import ru.yandex.practicum.storage.persistence.JsonSnapshotFormat;
+import ru.yandex.practicum.storage.persistence.SnapshotFormat;
+import ru.yandex.practicum.storage.user.InMemoryUserStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Холодный старт: восстановление хранилищ из двоичного снимка и из JSON-снимка одного и того же содержимого.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SnapshotLoadBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int films;
+
+    private Path directory;
+    private Path binarySnapshot;
+    private Path jsonSnapshot;
+    private SnapshotFormat binary;
+    private SnapshotFormat json;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("snapshot-benchmark");
+        binary = new BinarySnapshotFormat();
+        json = new JsonSnapshotFormat(Fixtures.objectMapper());
+        binarySnapshot = directory.resolve("snapshot.bin");
+        jsonSnapshot = directory.resolve("snapshot.json");
+        binary.write(binarySnapshot, films(), users());
+        json.write(jsonSnapshot, films(), users());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public int loadBinary() throws IOException {
+        return load(binary, binarySnapshot);
+    }
+
+    @Benchmark
+    public int loadJson() throws IOException {
+        return load(json, jsonSnapshot);
+    }
+
+    private static int load(SnapshotFormat format, Path file) throws IOException {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        format.read(file, filmStorage::restore, userStorage::restore);
+        return filmStorage.size() + userStorage.size();
+    }
+
+    private Stream<Film> films() {
+        return IntStream.range(0, films).mapToObj(i -> {
+            Film film = Fixtures.film(i);
+            film.setId(i + 1);
+            return film;
+        });
+    }
+
+    private Stream<User> users() {
+        return IntStream.range(0, films / 10).mapToObj(i -> {
+            User user = Fixtures.user(i);
+            user.setId(i + 1);
+            return user;
+        });
+    }
+}
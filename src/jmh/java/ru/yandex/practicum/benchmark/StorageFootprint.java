@@ -0,0 +1,65 @@
+package ru.yandex.practicum.benchmark;
+
+import ru.yandex.practicum.storage.StorageLayout;
+import ru.yandex.practicum.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.storage.user.InMemoryUserStorage;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Занимаемая хранилищами куча и время полной сборки мусора при count фильмах и count пользователях
+ * для каждого представления записей. Учитываются и общие для представлений индексы версий и полей.
+ *
+ * <pre>
+ * mvn -P benchmarks test-compile exec:exec -Dbenchmark.main="-Xmx8g ru.yandex.practicum.benchmark.StorageFootprint 5000000"
+ * </pre>
+ */
+public class StorageFootprint {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("%-10s %12s %12s %12s %12s%n", "layout", "heap MB", "B/film", "B/user", "full GC ms");
+        for (StorageLayout layout : StorageLayout.values()) {
+            long before = usedAfterGc();
+            InMemoryFilmStorage films = new InMemoryFilmStorage(layout);
+            for (int i = 1; i <= count; i++) {
+                films.add(Fixtures.film(i));
+            }
+            long withFilms = usedAfterGc();
+            InMemoryUserStorage users = new InMemoryUserStorage(layout);
+            for (int i = 1; i <= count; i++) {
+                users.add(Fixtures.user(i));
+            }
+            long withUsers = usedAfterGc();
+            long gcMillis = fullGcMillis();
+            System.out.printf("%-10s %12d %12d %12d %12d%n", layout.name().toLowerCase(),
+                    (withUsers - before) >> 20, (withFilms - before) / count, (withUsers - withFilms) / count,
+                    gcMillis);
+            // Хранилища должны дожить до замеров
+            if (films.size() + users.size() != 2 * count) {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private static long usedAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long fullGcMillis() {
+        long before = collectionMillis();
+        System.gc();
+        return collectionMillis() - before;
+    }
+
+    private static long collectionMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+}
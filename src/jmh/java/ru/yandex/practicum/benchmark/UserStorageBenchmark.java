@@ -0,0 +1,88 @@
+package ru.yandex.practicum.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.exception.ConflictException;
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.storage.user.InMemoryUserStorage;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Добавление, обновление и чтение пользователей, включая проверку занятости логина и почты.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserStorageBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private InMemoryUserStorage storage;
+    private int nextUser;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        storage = new InMemoryUserStorage();
+        for (int i = 0; i < size; i++) {
+            storage.add(Fixtures.user(i));
+        }
+        nextUser = size;
+    }
+
+    @Benchmark
+    public User add() {
+        return storage.add(Fixtures.user(nextUser++));
+    }
+
+    @Benchmark
+    public Object updateSameLogin() {
+        int i = ThreadLocalRandom.current().nextInt(size);
+        User user = Fixtures.user(i);
+        user.setId(i + 1);
+        return storage.update(user);
+    }
+
+    @Benchmark
+    public Object updateRenamingLogin() {
+        int i = ThreadLocalRandom.current().nextInt(size);
+        User user = Fixtures.user(i);
+        user.setId(i + 1);
+        user.setLogin("renamed" + i + "_" + ThreadLocalRandom.current().nextInt());
+        return storage.update(user);
+    }
+
+    @Benchmark
+    public Object updateConflictingLogin() {
+        int i = ThreadLocalRandom.current().nextInt(size - 1);
+        User user = Fixtures.user(i + 1);
+        user.setId(i + 1);
+        try {
+            return storage.update(user);
+        } catch (ConflictException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<User> getAll() {
+        return storage.getAll();
+    }
+}
@@ -0,0 +1,87 @@
+package ru.yandex.practicum.benchmark;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.exception.ReleaseDateValidator;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.validation.DayClock;
+import ru.yandex.practicum.validation.EntityValidator;
+import ru.yandex.practicum.validation.PrecompiledEntityValidator;
+import ru.yandex.practicum.validation.ReflectiveEntityValidator;
+import ru.yandex.practicum.validation.ValidationConfig;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"REFLECTIVE", "PRECOMPILED"})
+    private ValidationConfig.Mode mode;
+
+    private EntityValidator validator;
+    private ReleaseDateValidator releaseDateValidator;
+    private Film validFilm;
+    private Film invalidFilm;
+    private User validUser;
+    private User invalidUser;
+
+    @Setup
+    public void setUp() {
+        Validator beanValidator = Validation.buildDefaultValidatorFactory().getValidator();
+        validator = mode == ValidationConfig.Mode.PRECOMPILED
+                ? new PrecompiledEntityValidator(beanValidator, DayClock.SYSTEM)
+                : new ReflectiveEntityValidator(beanValidator);
+        releaseDateValidator = new ReleaseDateValidator();
+        validFilm = Fixtures.film(1);
+        invalidFilm = Fixtures.film(2);
+        invalidFilm.setName("");
+        invalidFilm.setDuration(-1);
+        validUser = Fixtures.user(1);
+        invalidUser = Fixtures.user(2);
+        invalidUser.setEmail("invalid");
+        invalidUser.setLogin("with space");
+    }
+
+    @Benchmark
+    public Map<String, String> validFilm() {
+        return validator.validate(validFilm);
+    }
+
+    @Benchmark
+    public Map<String, String> invalidFilm() {
+        return validator.validate(invalidFilm);
+    }
+
+    @Benchmark
+    public Map<String, String> validUser() {
+        return validator.validate(validUser);
+    }
+
+    @Benchmark
+    public Map<String, String> invalidUser() {
+        return validator.validate(invalidUser);
+    }
+
+    @Benchmark
+    public boolean releaseDate() {
+        return releaseDateValidator.isValid(validFilm.getReleaseDate(), null);
+    }
+}
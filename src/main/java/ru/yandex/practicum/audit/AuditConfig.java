@@ -0,0 +1,15 @@
+package ru.yandex.practicum.audit;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfig {
+
+    @Bean(destroyMethod = "close")
+    public AuditLog auditLog(AuditProperties properties) {
+        return new AuditLog(properties);
+    }
+}
@@ -0,0 +1,115 @@
+package ru.yandex.practicum.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Журнал изменений сущностей. Поток запроса только кладёт событие в ограниченный кольцевой буфер;
+ * форматирование и запись в лог выполняет фоновый поток. Если буфер заполнен, событие
+ * отбрасывается, а не задерживает запрос, — число отброшенных событий попадает в лог.
+ * Сущность форматируется позже, поэтому после передачи в {@link #record} её нельзя изменять.
+ */
+@Slf4j
+public class AuditLog implements Closeable {
+
+    private static final int MAX_BATCH_SIZE = 256;
+
+    private final AuditProperties.Mode mode;
+    private final List<String> fields;
+    private final BlockingQueue<Event> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AuditLog(AuditProperties properties) {
+        mode = properties.getMode();
+        fields = List.copyOf(properties.getFields());
+        queue = new ArrayBlockingQueue<>(properties.getQueueSize());
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void record(String action, int id, Object entity) {
+        if (mode == AuditProperties.Mode.OFF) {
+            return;
+        }
+        if (!running || !queue.offer(new Event(action, id, entity))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<Event> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        long reported = 0;
+        while (running || !queue.isEmpty()) {
+            try {
+                Event first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                    batch.forEach(this::write);
+                    batch.clear();
+                }
+                long lost = dropped.get();
+                if (lost != reported) {
+                    log.warn("Очередь аудита переполнена, пропущено записей: {}", lost - reported);
+                    reported = lost;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                batch.clear();
+                log.error("Не удалось записать событие аудита", e);
+            }
+        }
+    }
+
+    private void write(Event event) {
+        switch (mode) {
+            case ID -> log.info("{}: id={}", event.action(), event.id());
+            case FIELDS -> log.info("{}: id={}{}", event.action(), event.id(), selectedFields(event.entity()));
+            case FULL -> log.info("{}: {}", event.action(), event.entity());
+            default -> {
+            }
+        }
+    }
+
+    private String selectedFields(Object entity) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+        StringBuilder line = new StringBuilder();
+        for (String field : fields) {
+            if (wrapper.isReadableProperty(field)) {
+                line.append(", ").append(field).append('=').append(wrapper.getPropertyValue(field));
+            }
+        }
+        return line.toString();
+    }
+
+    private record Event(String action, int id, Object entity) {
+    }
+}
@@ -0,0 +1,26 @@
+package ru.yandex.practicum.audit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.audit")
+public class AuditProperties {
+    private Mode mode = Mode.ID;
+    private List<String> fields = new ArrayList<>();
+    private int queueSize = 8192;
+
+    public enum Mode {
+        /** Записи аудита не ведутся. */
+        OFF,
+        /** Только действие и id сущности. */
+        ID,
+        /** Действие, id и поля из списка fields. */
+        FIELDS,
+        /** Действие и toString() всей сущности. */
+        FULL
+    }
+}
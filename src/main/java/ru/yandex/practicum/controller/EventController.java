@@ -0,0 +1,40 @@
+package ru.yandex.practicum.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.feed.ChangeFeed;
+
+@Slf4j
+@RestController
+@RequestMapping("/events")
+@RequiredArgsConstructor
+public class EventController {
+
+    private final ChangeFeed changeFeed;
+
+    /**
+     * Поток добавлений и изменений фильмов и пользователей. Продолжить с места разрыва можно
+     * заголовком Last-Event-ID (его присылает EventSource) или параметром after.
+     * Номера событий начинаются с 1, поэтому на отрицательный номер ответ 400. Тело у этого ответа
+     * пустое: клиент ждёт text/event-stream, и {@code ErrorResponse} в JSON ему не отправить.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(value = "after", required = false) Long after) {
+        Long resumeAfter = lastEventId != null ? lastEventId : after;
+        if (resumeAfter != null && resumeAfter < 0) {
+            log.debug("Отклонена подписка с отрицательным номером события {}", resumeAfter);
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(changeFeed.subscribe(resumeAfter));
+    }
+}
@@ -1,45 +1,163 @@
 package ru.yandex.practicum.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import ru.yandex.practicum.exception.UserNotFoundException;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.audit.AuditLog;
+import ru.yandex.practicum.feed.ChangeFeed;
+import ru.yandex.practicum.model.BatchResult;
 import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.service.FilmService;
+import ru.yandex.practicum.storage.film.FilmQuery;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 
 @Slf4j
 @RestController
 @RequestMapping("/films")
+@RequiredArgsConstructor
 public class FilmController {
 
-    private final HashMap<Integer, Film> films = new HashMap<>();
-    private int counter = 0;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final AuditLog auditLog;
+    private final JsonResponseCache jsonCache;
+    private final ChangeFeed changeFeed;
 
     @PostMapping
     public ResponseEntity<Film> addFilm(@Valid @RequestBody Film film) {
-        film.setId(++counter);
-        films.put(film.getId(), film);
-        log.info("Добавлен фильм: {}", film);
+        filmService.addFilm(film);
+        auditLog.record("Добавлен фильм", film.getId(), film);
+        changeFeed.publish(ChangeFeed.Type.FILM_ADDED, film);
         return new ResponseEntity<>(film, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BatchResult addFilms(InputStream body) throws IOException {
+        BatchResult result = filmService.importFilms(body,
+                added -> changeFeed.publish(ChangeFeed.Type.FILM_ADDED, added));
+        log.info("Пакетная загрузка фильмов: добавлено {}, отклонено {}", result.created(), result.failed());
+        return result;
+    }
+
     @PutMapping
-    public ResponseEntity<Film> updateFilm(@Valid @RequestBody Film updatedFilm) {
-        if (!films.containsKey(updatedFilm.getId())) {
-            throw new UserNotFoundException("Фильм с id " + updatedFilm.getId() + " не найден");
-        }
-        films.put(updatedFilm.getId(), updatedFilm);
-        log.info("Обновлен фильм: {}", updatedFilm);
-        return ResponseEntity.ok(updatedFilm);
+    public ResponseEntity<Film> updateFilm(@Valid @RequestBody Film updatedFilm,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        IfMatch.update(ifMatch, updatedFilm.getVersion(),
+                () -> filmService.getFilm(updatedFilm.getId()).getVersion(),
+                expected -> filmService.updateFilm(updatedFilm, expected));
+        auditLog.record("Обновлен фильм", updatedFilm.getId(), updatedFilm);
+        changeFeed.publish(ChangeFeed.Type.FILM_UPDATED, updatedFilm);
+        return ResponseEntity.ok().eTag(Long.toString(updatedFilm.getVersion())).body(updatedFilm);
     }
 
+    /**
+     * ETag списка — версия коллекции, поэтому неизменившийся список не читается и не сериализуется.
+     * С параметром since возвращаются только записи, изменённые после этой версии.
+     * Фильтры по дате выхода и продолжительности и сортировка обслуживаются вторичными индексами;
+     * after — id последнего фильма предыдущей страницы в выбранном порядке.
+     */
     @GetMapping
-    public List<Film> getFilms() {
-        return new ArrayList<>(films.values());
+    public ResponseEntity<byte[]> getFilms(
+            @RequestParam(value = "after", required = false) Integer after,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "since", required = false) Long since,
+            @RequestParam(value = "releasedFrom", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate releasedFrom,
+            @RequestParam(value = "releasedTo", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate releasedTo,
+            @RequestParam(value = "minDuration", required = false) Integer minDuration,
+            @RequestParam(value = "maxDuration", required = false) Integer maxDuration,
+            @RequestParam(value = "sort", defaultValue = "id") String sort,
+            @RequestParam(value = "order", defaultValue = "asc") String order,
+            WebRequest request) {
+        if (request.checkNotModified(Long.toString(filmService.getFilmsVersion()))) {
+            return null;
+        }
+        int pageSize = limit == null ? MAX_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        if (since != null) {
+            return jsonCache.list(filmService.getFilmsChangedSince(since, pageSize));
+        }
+        FilmQuery query = new FilmQuery(releasedFrom, releasedTo, minDuration, maxDuration, parseSort(sort),
+                parseOrder(order), after, pageSize);
+        if (query.hasReleaseDateRange() || query.hasDurationRange() || query.sort() != FilmQuery.Sort.ID
+                || query.descending()) {
+            return jsonCache.list(filmService.findFilms(query));
+        }
+        if (after == null && limit == null) {
+            return jsonCache.list(filmService.getFilms());
+        }
+        return jsonCache.list(filmService.getFilms(after == null ? 0 : after, pageSize));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFilms(@RequestParam(value = "after", defaultValue = "0") int after) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(NdjsonWriter.write(objectMapper, filmService.streamFilms(after)));
+    }
+
+    private static FilmQuery.Sort parseSort(String sort) {
+        return switch (sort) {
+            case "id" -> FilmQuery.Sort.ID;
+            case "releaseDate" -> FilmQuery.Sort.RELEASE_DATE;
+            case "duration" -> FilmQuery.Sort.DURATION;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Сортировка возможна по id, releaseDate или duration, получено: " + sort);
+        };
+    }
+
+    private static boolean parseOrder(String order) {
+        return switch (order) {
+            case "asc" -> false;
+            case "desc" -> true;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Порядок сортировки должен быть asc или desc, получено: " + order);
+        };
+    }
+
+    @GetMapping("/{id}")
+    public Film getFilm(@PathVariable("id") int id, WebRequest request) {
+        Film film = filmService.getFilm(id);
+        if (request.checkNotModified(Long.toString(film.getVersion()))) {
+            return null;
+        }
+        return film;
+    }
+
+    @PutMapping("/{id}/like/{userId}")
+    public void addLike(@PathVariable("id") int id, @PathVariable("userId") int userId) {
+        filmService.addLike(id, userId);
+        log.info("Пользователь {} поставил лайк фильму {}", userId, id);
+    }
+
+    @DeleteMapping("/{id}/like/{userId}")
+    public void removeLike(@PathVariable("id") int id, @PathVariable("userId") int userId) {
+        filmService.removeLike(id, userId);
+        log.info("Пользователь {} удалил лайк фильму {}", userId, id);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<byte[]> searchFilms(@RequestParam("query") String query,
+                                  @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return jsonCache.list(filmService.searchFilms(query, Math.min(Math.max(limit, 1), MAX_PAGE_SIZE)));
+    }
+
+    @GetMapping("/popular")
+    public ResponseEntity<byte[]> getPopularFilms(@RequestParam(value = "count", defaultValue = "10") int count) {
+        return jsonCache.list(filmService.getPopularFilms(Math.min(Math.max(count, 1), MAX_PAGE_SIZE)));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.controller;
+
+import ru.yandex.practicum.exception.VersionConflictException;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Ожидаемая версия записи для PUT: из заголовка If-Match, а без него — из поля version тела.
+ * Версия 0 означает обновление без проверки.
+ */
+final class IfMatch {
+
+    private IfMatch() {
+    }
+
+    /**
+     * Выполняет обновление с условием из If-Match. Заголовок может перечислять несколько ETag через запятую
+     * (RFC 9110, 13.1.1) — тогда подходит любой из них: берётся текущая версия записи и, если она есть
+     * в списке, обновление выполняется с проверкой именно этой версии. Если запись успели изменить
+     * между чтением и обновлением, попытка повторяется: версии только растут, поэтому повторов не больше,
+     * чем тегов в списке.
+     */
+    static <T> T update(String ifMatch, long bodyVersion, LongSupplier currentVersion, LongFunction<T> update) {
+        long[] versions = expectedVersions(ifMatch, bodyVersion);
+        if (versions.length == 1) {
+            return update.apply(versions[0]);
+        }
+        while (true) {
+            long current = currentVersion.getAsLong();
+            if (Arrays.binarySearch(versions, current) < 0) {
+                throw new VersionConflictException("Заголовок If-Match не совпадает ни с одной версией: " + ifMatch);
+            }
+            try {
+                return update.apply(current);
+            } catch (VersionConflictException e) {
+                if (current == versions[versions.length - 1]) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Отсортированные версии из If-Match; {0}, если подходит любая.
+     */
+    static long[] expectedVersions(String ifMatch, long bodyVersion) {
+        if (ifMatch == null) {
+            return new long[]{bodyVersion};
+        }
+        String[] tags = ifMatch.split(",");
+        long[] versions = new long[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            String tag = tags[i].trim();
+            if (tag.equals("*")) {
+                if (tags.length > 1) {
+                    throw new VersionConflictException("Заголовок If-Match: * нельзя сочетать с версиями: " + ifMatch);
+                }
+                return new long[]{0};
+            }
+            versions[i] = version(tag, ifMatch);
+        }
+        Arrays.sort(versions);
+        return versions;
+    }
+
+    private static long version(String tag, String ifMatch) {
+        // If-Match требует строгого сравнения, слабый ETag не совпадает ни с одной версией
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new VersionConflictException("Заголовок If-Match должен содержать версию в кавычках: " + ifMatch);
+        }
+        try {
+            long version = Long.parseLong(tag.substring(1, tag.length() - 1));
+            if (version <= 0) {
+                // Версии записей начинаются с 1, а 0 в списке отключил бы проверку
+                throw new NumberFormatException();
+            }
+            return version;
+        } catch (NumberFormatException e) {
+            throw new VersionConflictException("Заголовок If-Match не совпадает ни с одной версией: " + ifMatch);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ru.yandex.practicum.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.model.Versioned;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JSON сущностей, сериализованный один раз на версию. Списки собираются из готовых байтов,
+ * Jackson вызывается только для сущностей, изменившихся с прошлого запроса: запись с другой
+ * версией считается устаревшей и кодируется заново.
+ * Объём ограничен бюджетом в байтах; при превышении записи вытесняются по алгоритму «часы»:
+ * запись, которую читали после прошлого обхода, получает второй шанс.
+ */
+@Component
+public class JsonResponseCache {
+
+    // Примерные накладные расходы на запись: ключ, объект записи, узлы карты и очереди
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final ObjectMapper objectMapper;
+    private final long maxBytes;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicLong usedBytes = new AtomicLong();
+
+    public JsonResponseCache(ObjectMapper objectMapper,
+                             @Value("${filmorate.json-cache.max-size:64MB}") DataSize maxSize) {
+        this.objectMapper = objectMapper;
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    public ResponseEntity<byte[]> list(List<? extends Versioned> items) {
+        byte[][] parts = new byte[items.size()][];
+        int length = 2 + Math.max(items.size() - 1, 0);
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = encode(items.get(i));
+            length += parts[i].length;
+        }
+        byte[] body = new byte[length];
+        int position = 0;
+        body[position++] = '[';
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                body[position++] = ',';
+            }
+            System.arraycopy(parts[i], 0, body, position, parts[i].length);
+            position += parts[i].length;
+        }
+        body[position] = ']';
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    public long usedBytes() {
+        return usedBytes.get();
+    }
+
+    /**
+     * JSON одной сущности; массив общий для всех вызывающих, изменять его нельзя.
+     */
+    public byte[] encode(Versioned item) {
+        Key key = new Key(item.getClass(), item.getId());
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version == item.getVersion()) {
+            entry.referenced = true;
+            return entry.json;
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(item);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать " + key, e);
+        }
+        Entry encoded = new Entry(key, item.getVersion(), json);
+        entries.put(key, encoded);
+        // Вытесненная или заменённая запись остаётся в очереди и в подсчёте байтов,
+        // пока обход её не снимет: так очередь не растёт сверх бюджета
+        clock.add(encoded);
+        if (usedBytes.addAndGet(encoded.size()) > maxBytes) {
+            evict();
+        }
+        return json;
+    }
+
+    private void evict() {
+        Entry entry;
+        while (usedBytes.get() > maxBytes && (entry = clock.poll()) != null) {
+            if (entry.referenced && entries.get(entry.key) == entry) {
+                entry.referenced = false;
+                clock.add(entry);
+                continue;
+            }
+            entries.remove(entry.key, entry);
+            usedBytes.addAndGet(-entry.size());
+        }
+    }
+
+    private record Key(Class<?> type, int id) {
+    }
+
+    private static final class Entry {
+        private final Key key;
+        private final long version;
+        private final byte[] json;
+        private volatile boolean referenced;
+
+        Entry(Key key, long version, byte[] json) {
+            this.key = key;
+            this.version = version;
+            this.json = json;
+        }
+
+        long size() {
+            return json.length + ENTRY_OVERHEAD;
+        }
+    }
+}
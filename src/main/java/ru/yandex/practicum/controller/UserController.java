@@ -1,60 +1,129 @@
 package ru.yandex.practicum.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import ru.yandex.practicum.exception.UserNotFoundException;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.audit.AuditLog;
+import ru.yandex.practicum.feed.ChangeFeed;
+import ru.yandex.practicum.model.BatchResult;
 import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.service.UserService;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
 
 @Slf4j
 @RestController
 @RequestMapping("/users")
+@RequiredArgsConstructor
 public class UserController {
 
-    private final HashMap<Integer, User> users = new HashMap<>();
-    private int counter = 0;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final AuditLog auditLog;
+    private final JsonResponseCache jsonCache;
+    private final ChangeFeed changeFeed;
 
     @PostMapping
     public ResponseEntity<User> addUser(@Valid @RequestBody User user) {
-        user.setId(++counter);
-        if (user.getName() == null || user.getName().isEmpty()) {
-            user.setName(user.getLogin());
-        }
-        users.put(user.getId(), user);
-        log.info("Добавлен пользователь: {}", user);
+        userService.addUser(user);
+        auditLog.record("Добавлен пользователь", user.getId(), user);
+        changeFeed.publish(ChangeFeed.Type.USER_ADDED, user);
         return new ResponseEntity<>(user, HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BatchResult addUsers(InputStream body) throws IOException {
+        BatchResult result = userService.importUsers(body,
+                added -> changeFeed.publish(ChangeFeed.Type.USER_ADDED, added));
+        log.info("Пакетная загрузка пользователей: добавлено {}, отклонено {}", result.created(), result.failed());
+        return result;
+    }
+
     @PutMapping
-    public ResponseEntity<User> updateUser(@Valid @RequestBody User updatedUser) {
-        if (!users.containsKey(updatedUser.getId())) {
-            throw new UserNotFoundException("Пользователь с id " + updatedUser.getId() + " не найден");
-        }
-        for (User user : users.values()) {
-            if (user.getId() != updatedUser.getId()) {
-                if (user.getLogin().equals(updatedUser.getLogin())) {
-                    log.warn("Логин {} уже используется", updatedUser.getLogin());
-                    return ResponseEntity.status(HttpStatus.CONFLICT).build();
-                }
-                if (user.getEmail().equals(updatedUser.getEmail())) {
-                    log.warn("Электронная почта {} уже используется", updatedUser.getEmail());
-                    return ResponseEntity.status(HttpStatus.CONFLICT).build();
-                }
-            }
+    public ResponseEntity<User> updateUser(@Valid @RequestBody User updatedUser,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        IfMatch.update(ifMatch, updatedUser.getVersion(),
+                () -> userService.getUser(updatedUser.getId()).getVersion(),
+                expected -> userService.updateUser(updatedUser, expected));
+        auditLog.record("Обновлен пользователь", updatedUser.getId(), updatedUser);
+        changeFeed.publish(ChangeFeed.Type.USER_UPDATED, updatedUser);
+        return ResponseEntity.ok().eTag(Long.toString(updatedUser.getVersion())).body(updatedUser);
+    }
+
+    @GetMapping("/{id}")
+    public User getUser(@PathVariable("id") int id, WebRequest request) {
+        User user = userService.getUser(id);
+        if (request.checkNotModified(Long.toString(user.getVersion()))) {
+            return null;
         }
-        users.put(updatedUser.getId(), updatedUser);
-        log.info("Обновлен пользователь: {}", updatedUser);
-        return ResponseEntity.ok(updatedUser);
+        return user;
+    }
+
+    @PutMapping("/{id}/friends/{friendId}")
+    public void addFriend(@PathVariable("id") int id, @PathVariable("friendId") int friendId) {
+        userService.addFriend(id, friendId);
+        log.info("Пользователи {} и {} теперь друзья", id, friendId);
+    }
+
+    @DeleteMapping("/{id}/friends/{friendId}")
+    public void removeFriend(@PathVariable("id") int id, @PathVariable("friendId") int friendId) {
+        userService.removeFriend(id, friendId);
+        log.info("Пользователи {} и {} больше не друзья", id, friendId);
     }
 
+    @GetMapping("/{id}/friends")
+    public ResponseEntity<byte[]> getFriends(@PathVariable("id") int id) {
+        return jsonCache.list(userService.getFriends(id));
+    }
+
+    @GetMapping("/{id}/friends/common/{otherId}")
+    public ResponseEntity<byte[]> getCommonFriends(@PathVariable("id") int id, @PathVariable("otherId") int otherId) {
+        return jsonCache.list(userService.getCommonFriends(id, otherId));
+    }
+
+    @GetMapping("/{id}/recommendations")
+    public ResponseEntity<byte[]> getRecommendations(@PathVariable("id") int id,
+                                                     @RequestParam(value = "count", defaultValue = "10") int count) {
+        return jsonCache.list(userService.getRecommendations(id, Math.min(Math.max(count, 1), MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * ETag списка — версия коллекции, поэтому неизменившийся список не читается и не сериализуется.
+     * С параметром since возвращаются только записи, изменённые после этой версии.
+     */
     @GetMapping
-    public List<User> getUsers() {
-        return new ArrayList<>(users.values());
+    public ResponseEntity<byte[]> getUsers(@RequestParam(value = "after", required = false) Integer after,
+                                           @RequestParam(value = "limit", required = false) Integer limit,
+                                           @RequestParam(value = "since", required = false) Long since,
+                                           WebRequest request) {
+        if (request.checkNotModified(Long.toString(userService.getUsersVersion()))) {
+            return null;
+        }
+        int pageSize = limit == null ? MAX_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        if (since != null) {
+            return jsonCache.list(userService.getUsersChangedSince(since, pageSize));
+        }
+        if (after == null && limit == null) {
+            return jsonCache.list(userService.getUsers());
+        }
+        return jsonCache.list(userService.getUsers(after == null ? 0 : after, pageSize));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(value = "after", defaultValue = "0") int after) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(NdjsonWriter.write(objectMapper, userService.streamUsers(after)));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package ru.yandex.practicum.exception;
+
+/**
+ * Запрос некорректен, хотя Spring его разобрал: параметры противоречат данным или тело,
+ * читаемое потоком, оказалось не JSON. Как и {@link NotFoundException}, без стека.
+ */
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,10 @@
+package ru.yandex.practicum.exception;
+
+/**
+ * Запрос противоречит текущему состоянию данных. Как и {@link NotFoundException}, без стека.
+ */
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message, null, false, false);
+    }
+}
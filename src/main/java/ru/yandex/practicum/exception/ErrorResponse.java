@@ -1,12 +1,23 @@
 package ru.yandex.practicum.exception;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
+import java.util.Map;
+
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ErrorResponse {
     private String message;
+    /** Сообщения по именам полей, если запрос не прошёл проверку. */
+    private Map<String, String> errors;
 
     public ErrorResponse(String message) {
         this.message = message;
     }
+
+    public ErrorResponse(String message, Map<String, String> errors) {
+        this.message = message;
+        this.errors = errors;
+    }
 }
@@ -0,0 +1,7 @@
+package ru.yandex.practicum.exception;
+
+public class FilmNotFoundException extends NotFoundException {
+    public FilmNotFoundException(int id) {
+        super("Фильм с id " + id + " не найден");
+    }
+}
@@ -0,0 +1,12 @@
+package ru.yandex.practicum.exception;
+
+/**
+ * Запрошенной записи нет. Ответ 404 — обычный исход запроса, в том числе для перебора
+ * случайных id, поэтому исключение не собирает стек: он нигде не используется,
+ * а его заполнение стоило бы больше, чем вся остальная обработка ошибки.
+ */
+public class NotFoundException extends RuntimeException {
+    public NotFoundException(String message) {
+        super(message, null, false, false);
+    }
+}
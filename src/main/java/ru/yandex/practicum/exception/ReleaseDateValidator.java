@@ -2,6 +2,7 @@ package ru.yandex.practicum.exception;
 
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
+import ru.yandex.practicum.validation.DayClock;
 
 import java.time.LocalDate;
 
@@ -10,6 +11,10 @@ public class ReleaseDateValidator implements ConstraintValidator<ReleaseDate, Lo
 
     @Override
     public boolean isValid(LocalDate releaseDate, ConstraintValidatorContext context) {
-        return releaseDate != null && !releaseDate.isBefore(MIN_DATE) && !releaseDate.isAfter(LocalDate.now());
+        return isWithinBounds(releaseDate, DayClock.SYSTEM.today());
     }
-}
\ No newline at end of file
+
+    public static boolean isWithinBounds(LocalDate releaseDate, LocalDate today) {
+        return releaseDate != null && !releaseDate.isBefore(MIN_DATE) && !releaseDate.isAfter(today);
+    }
+}
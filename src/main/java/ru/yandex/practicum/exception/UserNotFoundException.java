@@ -1,7 +1,7 @@
 package ru.yandex.practicum.exception;
 
-public class UserNotFoundException extends RuntimeException {
-    public UserNotFoundException(String message) {
-        super(message);
+public class UserNotFoundException extends NotFoundException {
+    public UserNotFoundException(int id) {
+        super("Пользователь с id " + id + " не найден");
     }
 }
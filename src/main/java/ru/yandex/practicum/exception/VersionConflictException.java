@@ -0,0 +1,10 @@
+package ru.yandex.practicum.exception;
+
+/**
+ * Запись изменилась с версии, на которую рассчитывал клиент.
+ */
+public class VersionConflictException extends ConflictException {
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,312 @@
+package ru.yandex.practicum.feed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.yandex.practicum.model.Versioned;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Лента изменений фильмов и пользователей для подписчиков SSE. Поток запроса только записывает
+ * событие в кольцевой буфер и будит подписчиков, поэтому никогда не ждёт медленного клиента.
+ * Каждое событие получает номер (offset), он же id события SSE: переподключившийся клиент
+ * присылает его в Last-Event-ID и продолжает с того же места.
+ * У каждого подписчика своя позиция в буфере, события ему отправляют потоки рассылки порциями
+ * по batchSize. Подписчик, отставший больше чем на ёмкость буфера, получает событие reset и
+ * продолжает с последних событий — пропущенное он перечитывает через GET с параметром since.
+ * <p>
+ * Отправка в сокет блокирующая, поэтому медленный клиент занимает только свой поток: пока
+ * постоянные потоки заняты, пул добавляет временные. Подписчик, у которого одна отправка длится
+ * дольше sendTimeout, отключается — клиент переподключится с Last-Event-ID.
+ * <p>
+ * События одной записи идут в порядке её версий: если запрос опоздал с публикацией и запись уже
+ * опубликована с более новой версией, устаревшее событие пропускается — новое несёт всю запись.
+ * Версии сверяются только с событиями, которые ещё в буфере, поэтому лента не хранит ничего
+ * сверх буфера; опоздание больше чем на ёмкость буфера не отслеживается.
+ * JSON сущности строится один раз при первой отправке и общий для всех подписчиков, поэтому
+ * после передачи в {@link #publish} сущность нельзя изменять.
+ */
+@Slf4j
+public class ChangeFeed implements Closeable {
+
+    private final AtomicReferenceArray<Event> ring;
+    private final int mask;
+    private final AtomicLong lastOffset = new AtomicLong();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Последнее событие каждой записи, пока оно в буфере; ключ — тип записи и id
+    private final Map<Long, Event> latestInRing = new ConcurrentHashMap<>();
+    private final Function<Versioned, byte[]> encoder;
+    private final ThreadPoolExecutor dispatcher;
+    private final ScheduledExecutorService watchdog;
+    private final int maxSubscribers;
+    private final int batchSize;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private volatile boolean running = true;
+
+    public ChangeFeed(FeedProperties properties, Function<Versioned, byte[]> encoder) {
+        int capacity = Integer.highestOneBit(Math.max(properties.getCapacity() - 1, 1)) << 1;
+        ring = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+        this.encoder = encoder;
+        maxSubscribers = properties.getMaxSubscribers();
+        batchSize = properties.getBatchSize();
+        timeoutMillis = properties.getTimeout().toMillis();
+        sendTimeoutNanos = properties.getSendTimeout().toNanos();
+        AtomicInteger threads = new AtomicInteger();
+        // Задач не больше, чем подписчиков: каждая без очереди получает поток, постоянный или временный
+        dispatcher = new ThreadPoolExecutor(properties.getDispatchThreads(), Integer.MAX_VALUE,
+                1, TimeUnit.MINUTES, new SynchronousQueue<>(),
+                task -> daemon(task, "feed-dispatcher-" + threads.incrementAndGet()));
+        watchdog = Executors.newSingleThreadScheduledExecutor(task -> daemon(task, "feed-watchdog"));
+        long period = Math.max(properties.getSendTimeout().toMillis() / 2, 1);
+        watchdog.scheduleWithFixedDelay(this::evictStalled, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public void publish(Type type, Versioned entity) {
+        long key = (long) type.entity << 32 | (entity.getId() & 0xFFFFFFFFL);
+        Event[] overwritten = new Event[1];
+        // Номер событию выдаётся внутри compute: события одной записи получают номера по порядку версий
+        latestInRing.compute(key, (k, published) -> {
+            if (published != null && published.entity.getVersion() >= entity.getVersion()) {
+                return published;
+            }
+            long offset = lastOffset.incrementAndGet();
+            Event event = new Event(offset, key, type, entity);
+            overwritten[0] = ring.getAndSet(index(offset), event);
+            return event;
+        });
+        // Вытесненное из буфера событие больше не нужно для сравнения версий
+        Event evicted = overwritten[0];
+        if (evicted != null) {
+            latestInRing.remove(evicted.key, evicted);
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.signal();
+        }
+    }
+
+    /**
+     * @param after номер последнего полученного события; null — только события после подписки
+     */
+    public SseEmitter subscribe(Long after) {
+        if (!running || subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Слишком много подписчиков на события");
+        }
+        long last = lastOffset.get();
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMillis), after == null ? last + 1 : after + 1);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.signal();
+        return subscriber.emitter;
+    }
+
+    public long lastOffset() {
+        return lastOffset.get();
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        watchdog.shutdownNow();
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private int index(long offset) {
+        return (int) offset & mask;
+    }
+
+    private void evictStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStarted;
+            if (started != 0 && now - started > sendTimeoutNanos) {
+                subscriber.evict();
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public enum Type {
+        FILM_ADDED("film.added", 0),
+        FILM_UPDATED("film.updated", 0),
+        USER_ADDED("user.added", 1),
+        USER_UPDATED("user.updated", 1);
+
+        private final String eventName;
+        // События одного вида записей сравниваются по версиям друг с другом
+        private final int entity;
+
+        Type(String eventName, int entity) {
+            this.eventName = eventName;
+            this.entity = entity;
+        }
+    }
+
+    private final class Event {
+        private final long offset;
+        private final long key;
+        private final Type type;
+        private final Versioned entity;
+        private volatile byte[] json;
+
+        Event(long offset, long key, Type type, Versioned entity) {
+            this.offset = offset;
+            this.key = key;
+            this.type = type;
+            this.entity = entity;
+        }
+
+        byte[] json() {
+            byte[] encoded = json;
+            if (encoded == null) {
+                encoded = encoder.apply(entity);
+                json = encoded;
+            }
+            return encoded;
+        }
+    }
+
+    /**
+     * Рассылка одному подписчику выполняется не более чем одной задачей за раз,
+     * поэтому позиция cursor меняется только из неё.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long cursor;
+        // Когда началась текущая отправка; 0 — подписчику сейчас ничего не отправляется
+        private volatile long sendStarted;
+        private volatile boolean evicted;
+        private Thread sender;
+
+        Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        void signal() {
+            if (running && !evicted && scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        /**
+         * Отключает подписчика, отправка которому зависла. Эмиттер закрывает поток отправки,
+         * когда освободится: методы SseEmitter ждут окончания текущей отправки.
+         */
+        synchronized void evict() {
+            if (!evicted && subscribers.remove(this)) {
+                evicted = true;
+                log.debug("Подписчик на события не принимает данные дольше {} мс и отключён",
+                        TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+                if (sender != null) {
+                    sender.interrupt();
+                } else {
+                    // Отправка закончилась, пока решали: закрывать некому, кроме нас
+                    emitter.completeWithError(new IOException("Клиент не принимает события"));
+                }
+            }
+        }
+
+        private synchronized void sending(Thread thread) {
+            sender = thread;
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            sendStarted = System.nanoTime() | 1;
+            try {
+                emitter.send(event);
+            } finally {
+                sendStarted = 0;
+            }
+        }
+
+        private void drain() {
+            sending(Thread.currentThread());
+            try {
+                for (int sent = 0; sent < batchSize && !evicted; sent++) {
+                    long last = lastOffset.get();
+                    if (cursor > last + 1 || cursor < last - mask) {
+                        reset(last);
+                        continue;
+                    }
+                    Event event = ring.get(index(cursor));
+                    if (event == null || event.offset < cursor) {
+                        // Номер уже выдан, но событие ещё не записано: запишет — разбудит
+                        break;
+                    }
+                    if (event.offset == cursor) {
+                        send(SseEmitter.event()
+                                .id(Long.toString(cursor))
+                                .name(event.type.eventName)
+                                .data(event.json(), MediaType.APPLICATION_JSON));
+                        cursor++;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Клиент отключился или соединение уже закрыто по таймауту
+                subscribers.remove(this);
+                log.debug("Подписчик на события отключён: {}", e.getMessage());
+                return;
+            } finally {
+                sending(null);
+                scheduled.set(false);
+                if (evicted) {
+                    emitter.completeWithError(new IOException("Клиент не принимает события"));
+                }
+            }
+            if (hasPending()) {
+                signal();
+            }
+        }
+
+        private void reset(long last) throws IOException {
+            send(SseEmitter.event()
+                    .id(Long.toString(last))
+                    .name("reset")
+                    .data(Long.toString(last)));
+            cursor = last + 1;
+        }
+
+        private boolean hasPending() {
+            Event event = ring.get(index(cursor));
+            return event != null && event.offset >= cursor || cursor > lastOffset.get() + 1;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.feed;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.controller.JsonResponseCache;
+
+@Configuration
+@EnableConfigurationProperties(FeedProperties.class)
+public class FeedConfig {
+
+    @Bean(destroyMethod = "close")
+    public ChangeFeed changeFeed(FeedProperties properties, JsonResponseCache jsonCache) {
+        return new ChangeFeed(properties, jsonCache::encode);
+    }
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.feed;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.feed")
+public class FeedProperties {
+    /** Сколько последних событий хранится для отстающих и переподключившихся подписчиков; округляется до степени двойки. */
+    private int capacity = 65_536;
+    /** Сколько подписчиков обслуживается одновременно; остальным отвечает 503. */
+    private int maxSubscribers = 1000;
+    /** Постоянные потоки, которые отправляют события подписчикам; для медленных клиентов добавляются временные. */
+    private int dispatchThreads = 4;
+    /** Сколько событий подряд отправляется одному подписчику, прежде чем поток перейдёт к другим. */
+    private int batchSize = 256;
+    /** Через сколько соединение закрывается и клиент переподключается с Last-Event-ID. */
+    private Duration timeout = Duration.ofMinutes(30);
+    /** Сколько может длиться одна отправка подписчику; дольше — подписчик отключается. */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+}
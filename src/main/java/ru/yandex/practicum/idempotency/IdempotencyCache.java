@@ -0,0 +1,106 @@
+package ru.yandex.practicum.idempotency;
+
+import java.security.MessageDigest;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ответы на недавние запросы с ключом идемпотентности. Размер ограничен: записи занимают слоты
+ * кольца в порядке появления, и новая запись вытесняет ту, что заняла её слот capacity записей
+ * назад. Устаревшие по ttl записи не отдаются и заменяются при следующем запросе с тем же ключом.
+ * Поиск и вставка — одна операция с ConcurrentHashMap, блокировок нет.
+ */
+public class IdempotencyCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Entry> ring;
+    private final int mask;
+    private final AtomicLong position = new AtomicLong();
+    private final long ttlNanos;
+
+    public IdempotencyCache(IdempotencyProperties properties) {
+        int capacity = Integer.highestOneBit(Math.max(properties.getCapacity() - 1, 1)) << 1;
+        ring = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+        ttlNanos = properties.getTtl().toNanos();
+    }
+
+    /**
+     * Закрепляет ключ за новым запросом.
+     *
+     * @return null, если ключа не было или его запись устарела, и теперь ключ принадлежит pending;
+     *         иначе — запись с этим ключом, завершённая или ещё выполняющаяся
+     */
+    public Entry putIfAbsent(String key, Entry pending) {
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, pending);
+            if (existing == null) {
+                Entry evicted = ring.getAndSet((int) position.getAndIncrement() & mask, pending);
+                if (evicted != null) {
+                    entries.remove(evicted.key, evicted);
+                }
+                return null;
+            }
+            if (pending.createdNanos - existing.createdNanos < ttlNanos) {
+                return existing;
+            }
+            entries.remove(key, existing);
+        }
+    }
+
+    /**
+     * Освобождает ключ запроса, который завершился без сохранённого ответа: повтор выполнится заново.
+     */
+    public void remove(Entry pending) {
+        entries.remove(pending.key, pending);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Запрос с ключом: до {@link #complete} он выполняется, после — хранит ответ для повторов.
+     */
+    public static final class Entry {
+        private final String key;
+        private final byte[] requestHash;
+        private final long createdNanos;
+        private volatile Response response;
+
+        /**
+         * @param requestHash хеш тела запроса: повтор с тем же ключом должен прислать то же тело
+         */
+        public Entry(String key, byte[] requestHash, long createdNanos) {
+            this.key = key;
+            this.requestHash = requestHash;
+            this.createdNanos = createdNanos;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        /**
+         * @return true, если other — повтор того же запроса, а не другой запрос с тем же ключом
+         */
+        public boolean matches(Entry other) {
+            return MessageDigest.isEqual(requestHash, other.requestHash);
+        }
+
+        public void complete(int status, String contentType, byte[] body) {
+            response = new Response(status, contentType, body);
+        }
+
+        /**
+         * @return сохранённый ответ; null, пока первый запрос ещё выполняется
+         */
+        public Response response() {
+            return response;
+        }
+    }
+
+    public record Response(int status, String contentType, byte[] body) {
+    }
+}
@@ -0,0 +1,18 @@
+package ru.yandex.practicum.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "filmorate.idempotency", name = "enabled", havingValue = "true")
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyFilter idempotencyFilter(IdempotencyProperties properties, ObjectMapper objectMapper) {
+        return new IdempotencyFilter(new IdempotencyCache(properties), objectMapper, properties.getMaxBodySize());
+    }
+}
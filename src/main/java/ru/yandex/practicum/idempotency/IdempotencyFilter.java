@@ -0,0 +1,143 @@
+package ru.yandex.practicum.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ru.yandex.practicum.controller.CachedBodyRequest;
+import ru.yandex.practicum.exception.ErrorResponse;
+import ru.yandex.practicum.ratelimit.RateLimitFilter;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Повтор POST с тем же заголовком Idempotency-Key получает сохранённый ответ первого запроса
+ * с заголовком Idempotent-Replayed, не доходя до проверки и сохранения тела. Ключ действует
+ * в пределах клиента и пути: один и тот же ключ от разных клиентов или в POST /films и
+ * POST /users — разные запросы. Клиент определяется по адресу, как в ограничении частоты.
+ * Вместе с ответом хранится SHA-256 тела: тот же ключ с другим телом получает 422.
+ * Сохраняются только успешные ответы (2xx); после ошибки повтор выполняется заново.
+ * Повтор, пришедший, пока первый запрос ещё выполняется, получает 409 с Retry-After.
+ * <p>
+ * Тело запроса и ответ держатся в памяти, поэтому тело с ключом не больше maxBodySize, иначе 413.
+ * Пакетная загрузка (POST .../batch) читает тело потоком и ключом не обрабатывается.
+ */
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long IN_PROGRESS_RETRY_AFTER_SECONDS = 1;
+    private static final String BATCH_SUFFIX = "/batch";
+
+    private final IdempotencyCache cache;
+    private final ObjectMapper objectMapper;
+    private final int maxBodyBytes;
+
+    public IdempotencyFilter(IdempotencyCache cache, ObjectMapper objectMapper, DataSize maxBodySize) {
+        this.cache = cache;
+        this.objectMapper = objectMapper;
+        // Массив длиной maxBodyBytes + 1 должен поместиться в Java
+        this.maxBodyBytes = (int) Math.min(maxBodySize.toBytes(), Integer.MAX_VALUE - 16);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || request.getHeader(KEY_HEADER) == null
+                || request.getRequestURI().endsWith(BATCH_SUFFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, "Заголовок " + KEY_HEADER + " должен содержать от 1 до "
+                    + MAX_KEY_LENGTH + " символов");
+            return;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Object forwardedClient = request.getAttribute(RateLimitFilter.CLIENT_ATTRIBUTE);
+        String client = forwardedClient != null ? forwardedClient.toString() : request.getRemoteAddr();
+        byte[] body = request.getContentLengthLong() > maxBodyBytes
+                ? null
+                : request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body == null || body.length > maxBodyBytes) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Тело запроса с " + KEY_HEADER + " не может быть больше "
+                    + maxBodyBytes + " байт");
+            return;
+        }
+        IdempotencyCache.Entry pending = new IdempotencyCache.Entry(client + ' ' + path + ' ' + key,
+                sha256(body), System.nanoTime());
+        IdempotencyCache.Entry existing = cache.putIfAbsent(pending.key(), pending);
+        if (existing != null) {
+            if (!existing.matches(pending)) {
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY, "Ключ " + KEY_HEADER
+                        + " уже использован для запроса с другим телом");
+                return;
+            }
+            replay(existing.response(), response, path);
+            return;
+        }
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        boolean saved = false;
+        try {
+            chain.doFilter(new CachedBodyRequest(request, body), buffered);
+            int status = buffered.getStatus();
+            if (status >= 200 && status < 300) {
+                pending.complete(status, buffered.getContentType(), buffered.getContentAsByteArray());
+                saved = true;
+            }
+        } finally {
+            if (!saved) {
+                cache.remove(pending);
+            }
+        }
+        buffered.copyBodyToResponse();
+    }
+
+    private void replay(IdempotencyCache.Response saved, HttpServletResponse response, String path)
+            throws IOException {
+        if (saved == null) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(IN_PROGRESS_RETRY_AFTER_SECONDS));
+            reject(response, HttpStatus.CONFLICT, "Запрос с этим " + KEY_HEADER + " ещё выполняется");
+            return;
+        }
+        log.debug("Повтор POST {} обслужен сохранённым ответом", path);
+        response.setStatus(saved.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (saved.contentType() != null) {
+            response.setContentType(saved.contentType());
+        }
+        response.setContentLength(saved.body().length);
+        response.getOutputStream().write(saved.body());
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 обязан поддерживать любой JRE
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(message));
+    }
+}
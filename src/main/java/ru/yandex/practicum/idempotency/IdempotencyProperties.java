@@ -0,0 +1,19 @@
+package ru.yandex.practicum.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.idempotency")
+public class IdempotencyProperties {
+    private boolean enabled = false;
+    /** Сколько последних ключей помнить; округляется до степени двойки, старые ключи вытесняются. */
+    private int capacity = 65_536;
+    /** Сколько повтор запроса получает сохранённый ответ. */
+    private Duration ttl = Duration.ofHours(1);
+    /** Наибольшее тело запроса с ключом: оно и ответ на него хранятся в памяти целиком. */
+    private DataSize maxBodySize = DataSize.ofKilobytes(64);
+}
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Итог пакетной загрузки. В errors попадают не больше первых 1000 ошибок,
+ * общее число отклонённых записей — в failed.
+ */
+public record BatchResult(int received, int created, int failed, List<ItemError> errors) {
+
+    public record ItemError(int index, Map<String, String> errors) {
+    }
+}
@@ -7,9 +7,13 @@ import lombok.Data;
 import ru.yandex.practicum.exception.ReleaseDate;
 
 @Data
-public class Film {
+public class Film implements Versioned {
     private int id;
 
+    // Версия последнего изменения; назначается хранилищем. В теле PUT без If-Match — ожидаемая версия
+    // для проверки конкурентного изменения (0 — без проверки), после записи заменяется новой
+    private long version;
+
     @NotBlank(message = "Название не может быть пустым")
     private String name;
 
@@ -6,8 +6,12 @@ import lombok.Data;
 import java.time.LocalDate;
 
 @Data
-public class User {
+public class User implements Versioned {
     private int id;
+
+    // Версия последнего изменения; назначается хранилищем. В теле PUT без If-Match — ожидаемая версия
+    // для проверки конкурентного изменения (0 — без проверки), после записи заменяется новой
+    private long version;
     @NotBlank(message = "Электронная почта не может быть пустой")
     @Email(message = "Электронная почта должна содержать символ @")
     private String email;
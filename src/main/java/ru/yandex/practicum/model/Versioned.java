@@ -0,0 +1,8 @@
+package ru.yandex.practicum.model;
+
+public interface Versioned {
+
+    int getId();
+
+    long getVersion();
+}
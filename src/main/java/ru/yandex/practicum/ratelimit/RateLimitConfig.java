@@ -0,0 +1,25 @@
+package ru.yandex.practicum.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "filmorate.rate-limit", name = "enabled", havingValue = "true")
+public class RateLimitConfig {
+
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper,
+                                           MeterRegistry registry) {
+        List<RateLimiter> limiters = properties.getRules().entrySet().stream()
+                .map(rule -> new RateLimiter(rule.getKey(), rule.getValue(), properties.getMaxClients(), registry))
+                .toList();
+        return new RateLimitFilter(limiters, objectMapper);
+    }
+}
@@ -0,0 +1,108 @@
+package ru.yandex.practicum.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.yandex.practicum.exception.ErrorResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Применяет к запросу все подходящие правила: сначала лимит клиента (429), затем ограничение
+ * числа одновременно обрабатываемых запросов (503). В обоих случаях Retry-After подсказывает,
+ * через сколько секунд повторить запрос. Клиент определяется по адресу отправителя
+ * или по атрибуту {@link #CLIENT_ATTRIBUTE}, если запрос переслан другим узлом.
+ */
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /** Адрес исходного клиента; выставляется фильтрами, которые выполняются раньше этого. */
+    public static final String CLIENT_ATTRIBUTE = RateLimitFilter.class.getName() + ".client";
+
+    private static final int MAX_RULES = 64;
+    private static final long SHED_RETRY_AFTER_SECONDS = 1;
+
+    private final List<RateLimiter> limiters;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(List<RateLimiter> limiters, ObjectMapper objectMapper) {
+        if (limiters.size() > MAX_RULES) {
+            throw new IllegalArgumentException("Правил ограничения частоты больше " + MAX_RULES);
+        }
+        this.limiters = limiters;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Object forwardedClient = request.getAttribute(CLIENT_ATTRIBUTE);
+        String client = forwardedClient != null ? forwardedClient.toString() : request.getRemoteAddr();
+        long matched = 0;
+        long now = System.nanoTime();
+        for (int i = 0; i < limiters.size(); i++) {
+            RateLimiter limiter = limiters.get(i);
+            if (!limiter.matches(method, path)) {
+                continue;
+            }
+            long wait = limiter.tryAcquire(client, now);
+            if (wait > 0) {
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, seconds(wait),
+                        "Слишком много запросов, лимит правила " + limiter.name() + " исчерпан");
+                return;
+            }
+            matched |= 1L << i;
+        }
+        long entered = 0;
+        for (int i = 0; i < limiters.size(); i++) {
+            if ((matched & 1L << i) == 0) {
+                continue;
+            }
+            if (!limiters.get(i).tryEnter()) {
+                exit(entered);
+                log.warn("Сброс нагрузки по правилу {}: {} {}", limiters.get(i).name(), method, path);
+                reject(response, HttpStatus.SERVICE_UNAVAILABLE, SHED_RETRY_AFTER_SECONDS,
+                        "Сервис перегружен, повторите запрос позже");
+                return;
+            }
+            entered |= 1L << i;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            exit(entered);
+        }
+    }
+
+    private void exit(long entered) {
+        for (int i = 0; i < limiters.size(); i++) {
+            if ((entered & 1L << i) != 0) {
+                limiters.get(i).exit();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(message));
+    }
+
+    private static long seconds(long nanos) {
+        return Math.max(1, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = false;
+    // Сколько клиентов помнить, прежде чем забывать тех, чьи корзины уже полны
+    private int maxClients = 100_000;
+    private Map<String, Rule> rules = new LinkedHashMap<>();
+
+    @Data
+    public static class Rule {
+        /** HTTP-методы, к которым применяется правило; пустой список — все. */
+        private List<String> methods = new ArrayList<>();
+        /** Шаблон пути в стиле Ant, например /films/**. */
+        private String path = "/**";
+        /** Сколько запросов клиент может отправить подряд. */
+        private int capacity = 20;
+        /** Скорость пополнения корзины клиента, запросов в секунду. */
+        private double refillPerSecond = 10;
+        /** Сколько запросов по правилу обрабатываются одновременно; 0 — без ограничения. */
+        private int maxConcurrent = 0;
+    }
+}
@@ -0,0 +1,112 @@
+package ru.yandex.practicum.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Ограничения одного правила: корзина токенов на каждого клиента и общий счётчик запросов в обработке.
+ */
+public class RateLimiter {
+
+    private static final AntPathMatcher PATHS = new AntPathMatcher();
+    private static final long SWEEP_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final String name;
+    private final RateLimitProperties.Rule rule;
+    private final Set<String> methods;
+    private final int maxClients;
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong nextSweep = new AtomicLong();
+    private final Counter limited;
+    private final Counter shed;
+
+    public RateLimiter(String name, RateLimitProperties.Rule rule, int maxClients, MeterRegistry registry) {
+        this.name = name;
+        this.rule = rule;
+        this.methods = rule.getMethods().stream().map(m -> m.toUpperCase(Locale.ROOT)).collect(Collectors.toSet());
+        this.maxClients = maxClients;
+        limited = rejections(registry, "429");
+        shed = rejections(registry, "503");
+        // Проверяем параметры сразу, а не на первом запросе
+        new TokenBucket(rule.getCapacity(), rule.getRefillPerSecond());
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public boolean matches(String method, String path) {
+        return (methods.isEmpty() || methods.contains(method)) && PATHS.match(rule.getPath(), path);
+    }
+
+    /**
+     * @return 0, если клиент уложился в лимит, иначе через сколько наносекунд появится токен
+     */
+    public long tryAcquire(String client, long now) {
+        TokenBucket bucket = buckets.get(client);
+        if (bucket == null) {
+            sweep(now);
+            bucket = buckets.computeIfAbsent(client,
+                    c -> new TokenBucket(rule.getCapacity(), rule.getRefillPerSecond()));
+        }
+        long wait = bucket.tryAcquire(now);
+        if (wait > 0) {
+            limited.increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Занимает место среди обрабатываемых запросов; при false место не занято и запрос нужно отклонить.
+     */
+    public boolean tryEnter() {
+        if (rule.getMaxConcurrent() <= 0) {
+            return true;
+        }
+        if (inFlight.incrementAndGet() > rule.getMaxConcurrent()) {
+            inFlight.decrementAndGet();
+            shed.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public void exit() {
+        if (rule.getMaxConcurrent() > 0) {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public int clients() {
+        return buckets.size();
+    }
+
+    /**
+     * Когда клиентов слишком много, забывает тех, у кого корзина снова полна. Не чаще раза в секунду.
+     */
+    private void sweep(long now) {
+        long next = nextSweep.get();
+        if (buckets.size() < maxClients || now - next < 0 || !nextSweep.compareAndSet(next, now + SWEEP_INTERVAL)) {
+            return;
+        }
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private Counter rejections(MeterRegistry registry, String status) {
+        return Counter.builder("filmorate.rate-limit.rejected")
+                .tag("rule", name)
+                .tag("status", status)
+                .description("Запросы, отклонённые ограничением частоты (429) или сбросом нагрузки (503)")
+                .register(registry);
+    }
+}
@@ -0,0 +1,49 @@
+package ru.yandex.practicum.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Корзина токенов в виде одного числа — теоретического времени следующего запроса (GCRA).
+ * Каждый запрос сдвигает это время на интервал между токенами; запрос разрешён, пока оно
+ * опережает текущее время не больше чем на capacity - 1 интервалов. Захват — один CAS без блокировок.
+ */
+public class TokenBucket {
+
+    private final long interval;
+    private final long tolerance;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(int capacity, double refillPerSecond) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("Ёмкость и скорость пополнения должны быть положительными");
+        }
+        interval = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        tolerance = (capacity - 1) * interval;
+    }
+
+    /**
+     * @param now текущее время в наносекундах ({@link System#nanoTime()})
+     * @return 0, если токен получен, иначе через сколько наносекунд он появится
+     */
+    public long tryAcquire(long now) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long start = arrival == Long.MIN_VALUE || arrival - now < 0 ? now : arrival;
+            long wait = start - now - tolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Полная корзина ничем не отличается от новой, поэтому её можно забыть.
+     */
+    public boolean isFull(long now) {
+        long arrival = theoreticalArrival.get();
+        return arrival == Long.MIN_VALUE || arrival - now <= 0;
+    }
+}
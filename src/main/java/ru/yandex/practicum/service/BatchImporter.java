@@ -0,0 +1,113 @@
+package ru.yandex.practicum.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.exception.BadRequestException;
+import ru.yandex.practicum.model.BatchResult;
+import ru.yandex.practicum.validation.EntityValidator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Читает JSON-массив или NDJSON по одному объекту, проверяет каждый теми же ограничениями,
+ * что и {@code @Valid}, и передаёт корректные записи на сохранение пачками.
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchImporter {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final EntityValidator validator;
+
+    @FunctionalInterface
+    public interface BatchInserter<T> {
+        /**
+         * Сохраняет пачку; о записях, которые сохранить не удалось, сообщает через onFailure
+         * с позицией записи в пачке.
+         */
+        void insert(List<T> batch, BiConsumer<Integer, String> onFailure);
+    }
+
+    public <T> BatchResult importAll(InputStream body, Class<T> type, BatchInserter<T> inserter) throws IOException {
+        Report report = new Report();
+        List<T> batch = new ArrayList<>(BATCH_SIZE);
+        int[] positions = new int[BATCH_SIZE];
+        MappingIterator<T> items;
+        try {
+            items = objectMapper.readerFor(type).readValues(body);
+        } catch (JsonProcessingException e) {
+            // Тело не начинается ни с массива, ни с объекта: разбирать по записям нечего
+            throw new BadRequestException("Некорректный JSON: " + e.getOriginalMessage());
+        }
+        try (items) {
+            while (true) {
+                T item;
+                int index = report.received;
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    report.received++;
+                    item = items.nextValue();
+                } catch (JsonParseException e) {
+                    // Нечитаемая запись тоже получена: иначе created = received - failed ушло бы в минус
+                    report.received = index + 1;
+                    report.fail(index, Map.of("json", "Некорректный JSON: " + e.getOriginalMessage()));
+                    break;
+                } catch (JsonMappingException e) {
+                    report.received = index + 1;
+                    report.fail(index, Map.of("json", "Некорректное значение: " + e.getOriginalMessage()));
+                    continue;
+                }
+                Map<String, String> violations = validator.validate(item);
+                if (!violations.isEmpty()) {
+                    report.fail(index, violations);
+                    continue;
+                }
+                positions[batch.size()] = index;
+                batch.add(item);
+                if (batch.size() == BATCH_SIZE) {
+                    flush(batch, positions, inserter, report);
+                }
+            }
+        }
+        flush(batch, positions, inserter, report);
+        report.errors.sort(Comparator.comparingInt(BatchResult.ItemError::index));
+        return new BatchResult(report.received, report.received - report.failed, report.failed, report.errors);
+    }
+
+    private <T> void flush(List<T> batch, int[] positions, BatchInserter<T> inserter, Report report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        inserter.insert(batch, (position, message) -> report.fail(positions[position], Map.of("error", message)));
+        batch.clear();
+    }
+
+    private static final class Report {
+        private final List<BatchResult.ItemError> errors = new ArrayList<>();
+        private int received;
+        private int failed;
+
+        void fail(int index, Map<String, String> itemErrors) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new BatchResult.ItemError(index, itemErrors));
+            }
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package ru.yandex.practicum.service;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.storage.StripedLocks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Инвертированный индекс по названию и описанию фильмов.
+ * Для каждого слова хранится отсортированный по id список фильмов с весами вхождений,
+ * поэтому пересечение списков для нескольких слов запроса выполняется слиянием.
+ * Слова запроса ищутся и как префиксы: «матр» находит «матрица».
+ */
+@Component
+public class FilmSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_EXPANSIONS = 128;
+    private static final float PREFIX_PENALTY = 0.5f;
+
+    private final ConcurrentSkipListMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Integer, String[]> indexedTerms = new ConcurrentHashMap<>();
+    private final StripedLocks locks = new StripedLocks(64);
+
+    /**
+     * Переиндексирует фильм по его текущему состоянию. Источник читается под блокировкой id,
+     * чтобы при конкурентных обновлениях индекс не остался со старой версией.
+     * Если источник вернул null, фильм удаляется из индекса.
+     */
+    public void index(int filmId, Supplier<Film> current) {
+        ReentrantLock lock = locks.forId(filmId);
+        lock.lock();
+        try {
+            Film film = current.get();
+            Map<String, Integer> weights = film == null ? Map.of() : weigh(film);
+            String[] previous = indexedTerms.get(filmId);
+            if (previous != null) {
+                for (String term : previous) {
+                    if (!weights.containsKey(term)) {
+                        deindex(term, filmId);
+                    }
+                }
+            }
+            weights.forEach((term, weight) -> {
+                Postings postings;
+                while (!(postings = terms.computeIfAbsent(term, t -> new Postings())).put(filmId, weight)) {
+                    // Список только что опустел и закрыт; убираем его, если удаливший ещё не успел
+                    terms.remove(term, postings);
+                }
+            });
+            if (weights.isEmpty()) {
+                indexedTerms.remove(filmId);
+            } else {
+                indexedTerms.put(filmId, weights.keySet().toArray(String[]::new));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает id фильмов, содержащих все слова запроса, в порядке убывания релевантности.
+     * Первым обрабатывается самое редкое слово, остальные лишь проверяются для найденных им фильмов.
+     */
+    public List<Integer> search(String query, int limit) {
+        List<Expansion> expansions = new ArrayList<>();
+        for (String token : tokenize(query).stream().distinct().toList()) {
+            expansions.add(expand(token));
+        }
+        if (expansions.isEmpty()) {
+            return List.of();
+        }
+        expansions.sort(Comparator.comparingLong(Expansion::estimate));
+        int total = Math.max(indexedTerms.size(), 1);
+        Expansion rarest = expansions.get(0);
+        ScoredIds result = ScoredIds.EMPTY;
+        for (Map.Entry<String, Postings> term : rarest.terms()) {
+            result = result.union(term.getValue().scored(total, rarest.boost(term.getKey())));
+        }
+        for (int i = 1; i < expansions.size() && result.size() > 0; i++) {
+            Expansion expansion = expansions.get(i);
+            float[] extra = new float[result.size()];
+            for (Map.Entry<String, Postings> term : expansion.terms()) {
+                term.getValue().probe(result, extra, total, expansion.boost(term.getKey()));
+            }
+            result = result.retainMatched(extra);
+        }
+        return result.top(limit);
+    }
+
+    public int size() {
+        return indexedTerms.size();
+    }
+
+    /**
+     * Число различных слов в индексе.
+     */
+    public int termCount() {
+        return terms.size();
+    }
+
+    private Expansion expand(String token) {
+        NavigableMap<String, Postings> candidates = token.length() < MIN_PREFIX_LENGTH
+                ? terms.subMap(token, true, token, true)
+                : terms.subMap(token, true, token + Character.MAX_VALUE, false);
+        List<Map.Entry<String, Postings>> matched = new ArrayList<>();
+        long estimate = 0;
+        for (Map.Entry<String, Postings> entry : candidates.entrySet()) {
+            if (matched.size() == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            matched.add(entry);
+            estimate += entry.getValue().size();
+        }
+        return new Expansion(token, matched, estimate);
+    }
+
+    /**
+     * Убирает фильм из списка слова; опустевший список удаляется из индекса, чтобы слова
+     * удалённых и изменённых фильмов не копились и не попадали в раскрытие префиксов.
+     */
+    private void deindex(String term, int filmId) {
+        Postings postings = terms.get(term);
+        if (postings != null && postings.remove(filmId)) {
+            terms.remove(term, postings);
+        }
+    }
+
+    private static Map<String, Integer> weigh(Film film) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : tokenize(film.getName())) {
+            weights.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(film.getDescription())) {
+            weights.merge(term, 1, Integer::sum);
+        }
+        return weights;
+    }
+
+    /**
+     * Разбивает текст на слова из букв и цифр, приводит к нижнему регистру и заменяет «ё» на «е».
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                c = Character.toLowerCase(c);
+                token.append(c == 'ё' ? 'е' : c);
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Список вхождений одного слова: id фильмов по возрастанию и веса.
+     * Новые фильмы получают растущие id, поэтому вставка обычно сводится к добавлению в конец.
+     * Опустевший список закрывается и больше не принимает вхождений: его место в индексе
+     * занимает новый, поэтому вхождение не может потеряться в списке, который уже удаляют.
+     */
+    private static final class Postings {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private int[] ids = new int[2];
+        private int[] weights = new int[2];
+        private int size;
+        private boolean closed;
+
+        /**
+         * @return false, если список закрыт и вхождение нужно добавить в новый
+         */
+        boolean put(int id, int weight) {
+            lock.writeLock().lock();
+            try {
+                if (closed) {
+                    return false;
+                }
+                int position = size > 0 && ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) {
+                    weights[position] = weight;
+                    return true;
+                }
+                int insertion = -position - 1;
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                    weights = Arrays.copyOf(weights, size * 2);
+                }
+                System.arraycopy(ids, insertion, ids, insertion + 1, size - insertion);
+                System.arraycopy(weights, insertion, weights, insertion + 1, size - insertion);
+                ids[insertion] = id;
+                weights[insertion] = weight;
+                size++;
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * @return true, если список опустел и закрыт: его нужно убрать из индекса
+         */
+        boolean remove(int id) {
+            lock.writeLock().lock();
+            try {
+                int position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) {
+                    System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                    System.arraycopy(weights, position + 1, weights, position, size - position - 1);
+                    size--;
+                }
+                closed = size == 0;
+                return closed;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return size;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        ScoredIds scored(int total, float boost) {
+            lock.readLock().lock();
+            try {
+                float idf = idf(total, boost);
+                float[] scores = new float[size];
+                for (int i = 0; i < size; i++) {
+                    scores[i] = weights[i] * idf;
+                }
+                return new ScoredIds(Arrays.copyOf(ids, size), scores, size);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Для каждого кандидата, входящего в этот список, записывает в extra лучший найденный вес слова.
+         */
+        void probe(ScoredIds candidates, float[] extra, int total, float boost) {
+            lock.readLock().lock();
+            try {
+                float idf = idf(total, boost);
+                int[] candidateIds = candidates.ids();
+                int from = 0;
+                // Когда кандидатов мало относительно списка, дешевле двоичный поиск, иначе — слияние
+                boolean search = (long) candidates.size() * 8 < size;
+                for (int i = 0; i < candidates.size() && from < size; i++) {
+                    int position;
+                    if (search) {
+                        position = Arrays.binarySearch(ids, from, size, candidateIds[i]);
+                    } else {
+                        while (from < size && ids[from] < candidateIds[i]) {
+                            from++;
+                        }
+                        position = from < size && ids[from] == candidateIds[i] ? from : -from - 1;
+                    }
+                    if (position >= 0) {
+                        extra[i] = Math.max(extra[i], weights[position] * idf);
+                        from = position + 1;
+                    } else {
+                        from = -position - 1;
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private float idf(int total, float boost) {
+            return (float) Math.log(1 + (double) total / Math.max(size, 1)) * boost;
+        }
+    }
+
+    private record Expansion(String token, List<Map.Entry<String, Postings>> terms, long estimate) {
+
+        float boost(String term) {
+            return term.equals(token) ? 1f : PREFIX_PENALTY;
+        }
+    }
+
+    private record ScoredIds(int[] ids, float[] scores, int size) {
+
+        static final ScoredIds EMPTY = new ScoredIds(new int[0], new float[0], 0);
+
+        ScoredIds union(ScoredIds other) {
+            int[] mergedIds = new int[size + other.size];
+            float[] mergedScores = new float[size + other.size];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || i < size && ids[i] < other.ids[j]) {
+                    mergedIds[k] = ids[i];
+                    mergedScores[k++] = scores[i++];
+                } else if (i == size || ids[i] > other.ids[j]) {
+                    mergedIds[k] = other.ids[j];
+                    mergedScores[k++] = other.scores[j++];
+                } else {
+                    mergedIds[k] = ids[i];
+                    mergedScores[k++] = Math.max(scores[i++], other.scores[j++]);
+                }
+            }
+            return new ScoredIds(mergedIds, mergedScores, k);
+        }
+
+        ScoredIds retainMatched(float[] extra) {
+            int k = 0;
+            int[] retainedIds = new int[size];
+            float[] retainedScores = new float[size];
+            for (int i = 0; i < size; i++) {
+                if (extra[i] > 0) {
+                    retainedIds[k] = ids[i];
+                    retainedScores[k++] = scores[i] + extra[i];
+                }
+            }
+            return new ScoredIds(retainedIds, retainedScores, k);
+        }
+
+        /**
+         * Выбирает limit лучших позиций кучей на массиве индексов; при равенстве выше меньший id.
+         */
+        List<Integer> top(int limit) {
+            int[] heap = new int[Math.min(limit, size)];
+            int heapSize = 0;
+            for (int i = 0; i < size; i++) {
+                if (heapSize < heap.length) {
+                    heap[heapSize] = i;
+                    siftUp(heap, heapSize++);
+                } else if (better(i, heap[0])) {
+                    heap[0] = i;
+                    siftDown(heap, heapSize);
+                }
+            }
+            Integer[] ranked = new Integer[heapSize];
+            while (heapSize > 0) {
+                ranked[heapSize - 1] = ids[heap[0]];
+                heap[0] = heap[--heapSize];
+                siftDown(heap, heapSize);
+            }
+            return Arrays.asList(ranked);
+        }
+
+        private boolean better(int a, int b) {
+            return scores[a] != scores[b] ? scores[a] > scores[b] : ids[a] < ids[b];
+        }
+
+        private void siftUp(int[] heap, int position) {
+            while (position > 0) {
+                int parent = (position - 1) / 2;
+                if (!better(heap[parent], heap[position])) {
+                    return;
+                }
+                swap(heap, parent, position);
+                position = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int heapSize) {
+            int position = 0;
+            while (true) {
+                int worst = position;
+                int left = 2 * position + 1;
+                int right = left + 1;
+                if (left < heapSize && better(heap[worst], heap[left])) {
+                    worst = left;
+                }
+                if (right < heapSize && better(heap[worst], heap[right])) {
+                    worst = right;
+                }
+                if (worst == position) {
+                    return;
+                }
+                swap(heap, position, worst);
+                position = worst;
+            }
+        }
+
+        private static void swap(int[] heap, int i, int j) {
+            int tmp = heap[i];
+            heap[i] = heap[j];
+            heap[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package ru.yandex.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.exception.FilmNotFoundException;
+import ru.yandex.practicum.exception.UserNotFoundException;
+import ru.yandex.practicum.model.BatchResult;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.storage.film.FilmQuery;
+import ru.yandex.practicum.storage.film.FilmStorage;
+import ru.yandex.practicum.storage.like.LikeStorage;
+import ru.yandex.practicum.storage.user.UserStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FilmService {
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final LikeStorage likeStorage;
+    private final BatchImporter batchImporter;
+    private final FilmSearchIndex searchIndex;
+
+    /**
+     * Фильмы, восстановленные из журнала при старте, попадают в хранилище в обход сервиса,
+     * поэтому поисковый индекс строится заново, когда приложение готово.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSearchIndex() {
+        long started = System.nanoTime();
+        try (Stream<Film> films = filmStorage.streamFrom(0)) {
+            films.forEach(film -> reindex(film.getId()));
+        }
+        log.info("Поисковый индекс построен для {} фильмов ({} слов) за {} мс", searchIndex.size(),
+                searchIndex.termCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public Film addFilm(Film film) {
+        Film added = filmStorage.add(film);
+        reindex(added.getId());
+        return added;
+    }
+
+    /**
+     * @param onAdded вызывается для каждого сохранённого фильма
+     */
+    public BatchResult importFilms(InputStream body, Consumer<Film> onAdded) throws IOException {
+        return batchImporter.importAll(body, Film.class, (films, onFailure) -> {
+            filmStorage.addAll(films);
+            films.forEach(film -> {
+                reindex(film.getId());
+                onAdded.accept(film);
+            });
+        });
+    }
+
+    /**
+     * @param expectedVersion версия, которую видел клиент; 0 — обновить без проверки
+     */
+    public Film updateFilm(Film film, long expectedVersion) {
+        Film updated = filmStorage.update(film, expectedVersion)
+                .orElseThrow(() -> new FilmNotFoundException(film.getId()));
+        reindex(updated.getId());
+        return updated;
+    }
+
+    public List<Film> searchFilms(String query, int limit) {
+        List<Film> found = new ArrayList<>();
+        for (int filmId : searchIndex.search(query, limit)) {
+            filmStorage.findById(filmId).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    public Film getFilm(int id) {
+        return filmStorage.findById(id)
+                .orElseThrow(() -> new FilmNotFoundException(id));
+    }
+
+    public void addLike(int filmId, int userId) {
+        checkFilmAndUser(filmId, userId);
+        likeStorage.addLike(filmId, userId);
+    }
+
+    public void removeLike(int filmId, int userId) {
+        checkFilmAndUser(filmId, userId);
+        likeStorage.removeLike(filmId, userId);
+    }
+
+    /**
+     * Сначала фильмы из рейтинга лайков; если их меньше count, список дополняется
+     * фильмами без лайков в порядке id.
+     */
+    public List<Film> getPopularFilms(int count) {
+        List<Film> popular = new ArrayList<>(count);
+        for (int filmId : likeStorage.getMostLiked(count)) {
+            filmStorage.findById(filmId).ifPresent(popular::add);
+        }
+        if (popular.size() < count) {
+            try (Stream<Film> films = filmStorage.streamFrom(0)) {
+                Iterator<Film> iterator = films.iterator();
+                while (popular.size() < count && iterator.hasNext()) {
+                    Film film = iterator.next();
+                    if (likeStorage.countLikes(film.getId()) == 0) {
+                        popular.add(film);
+                    }
+                }
+            }
+        }
+        return popular;
+    }
+
+    public List<Film> getFilms() {
+        return filmStorage.getAll();
+    }
+
+    public List<Film> getFilms(int afterId, int limit) {
+        return filmStorage.getPage(afterId, limit);
+    }
+
+    public List<Film> findFilms(FilmQuery query) {
+        return filmStorage.find(query);
+    }
+
+    public long getFilmsVersion() {
+        return filmStorage.version();
+    }
+
+    public List<Film> getFilmsChangedSince(long version, int limit) {
+        return filmStorage.getChangedSince(version, limit);
+    }
+
+    public Stream<Film> streamFilms(int afterId) {
+        return filmStorage.streamFrom(afterId);
+    }
+
+    private void reindex(int filmId) {
+        searchIndex.index(filmId, () -> filmStorage.findById(filmId).orElse(null));
+    }
+
+    private void checkFilmAndUser(int filmId, int userId) {
+        getFilm(filmId);
+        if (userStorage.findById(userId).isEmpty()) {
+            throw new UserNotFoundException(userId);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ru.yandex.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.exception.ConflictException;
+import ru.yandex.practicum.exception.UserNotFoundException;
+import ru.yandex.practicum.model.BatchResult;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.storage.film.FilmStorage;
+import ru.yandex.practicum.storage.friend.FriendStorage;
+import ru.yandex.practicum.storage.like.LikeStorage;
+import ru.yandex.practicum.storage.user.UserStorage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class UserService {
+
+    // Сколько самых похожих пользователей участвует в рекомендациях
+    private static final int SIMILAR_USERS = 20;
+
+    private final UserStorage userStorage;
+    private final FriendStorage friendStorage;
+    private final BatchImporter batchImporter;
+    private final FilmStorage filmStorage;
+    private final LikeStorage likeStorage;
+
+    public User addUser(User user) {
+        fillName(user);
+        return userStorage.add(user);
+    }
+
+    /**
+     * @param onAdded вызывается для каждого сохранённого пользователя
+     */
+    public BatchResult importUsers(InputStream body, Consumer<User> onAdded) throws IOException {
+        return batchImporter.importAll(body, User.class, (users, onFailure) -> {
+            users.forEach(UserService::fillName);
+            BitSet rejected = new BitSet(users.size());
+            userStorage.addAll(users, (position, e) -> {
+                rejected.set(position);
+                onFailure.accept(position, e.getMessage());
+            });
+            for (int i = rejected.nextClearBit(0); i < users.size(); i = rejected.nextClearBit(i + 1)) {
+                onAdded.accept(users.get(i));
+            }
+        });
+    }
+
+    /**
+     * @param expectedVersion версия, которую видел клиент; 0 — обновить без проверки
+     */
+    public User updateUser(User user, long expectedVersion) {
+        return userStorage.update(user, expectedVersion)
+                .orElseThrow(() -> new UserNotFoundException(user.getId()));
+    }
+
+    public User getUser(int id) {
+        return userStorage.findById(id)
+                .orElseThrow(() -> new UserNotFoundException(id));
+    }
+
+    public void addFriend(int id, int friendId) {
+        checkFriends(id, friendId);
+        friendStorage.addFriend(id, friendId);
+    }
+
+    public void removeFriend(int id, int friendId) {
+        checkFriends(id, friendId);
+        friendStorage.removeFriend(id, friendId);
+    }
+
+    public List<User> getFriends(int id) {
+        getUser(id);
+        return toUsers(friendStorage.getFriendIds(id));
+    }
+
+    public List<User> getCommonFriends(int id, int otherId) {
+        getUser(id);
+        getUser(otherId);
+        return toUsers(friendStorage.getCommonFriendIds(id, otherId));
+    }
+
+    /**
+     * Фильмы, которые лайкнули пользователи с наиболее похожими лайками, а сам пользователь — нет.
+     * Чем больше похожих пользователей лайкнули фильм, тем он выше; при равенстве — по id.
+     */
+    public List<Film> getRecommendations(int id, int count) {
+        getUser(id);
+        int[] liked = likeStorage.getLikedFilmIds(id);
+        Map<Integer, Integer> votes = new HashMap<>();
+        for (int similarId : likeStorage.getSimilarUsers(id, SIMILAR_USERS)) {
+            for (int filmId : likeStorage.getLikedFilmIds(similarId)) {
+                if (Arrays.binarySearch(liked, filmId) < 0) {
+                    votes.merge(filmId, 1, Integer::sum);
+                }
+            }
+        }
+        List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(votes.entrySet());
+        ranked.sort(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<Film> recommended = new ArrayList<>(Math.min(count, ranked.size()));
+        for (Map.Entry<Integer, Integer> entry : ranked) {
+            if (recommended.size() == count) {
+                break;
+            }
+            filmStorage.findById(entry.getKey()).ifPresent(recommended::add);
+        }
+        return recommended;
+    }
+
+    public List<User> getUsers() {
+        return userStorage.getAll();
+    }
+
+    public List<User> getUsers(int afterId, int limit) {
+        return userStorage.getPage(afterId, limit);
+    }
+
+    public long getUsersVersion() {
+        return userStorage.version();
+    }
+
+    public List<User> getUsersChangedSince(long version, int limit) {
+        return userStorage.getChangedSince(version, limit);
+    }
+
+    public Stream<User> streamUsers(int afterId) {
+        return userStorage.streamFrom(afterId);
+    }
+
+    private void checkFriends(int id, int friendId) {
+        if (id == friendId) {
+            throw new ConflictException("Пользователь не может добавить в друзья самого себя");
+        }
+        getUser(id);
+        getUser(friendId);
+    }
+
+    private List<User> toUsers(int[] ids) {
+        return Arrays.stream(ids)
+                .mapToObj(userStorage::findById)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    private static void fillName(User user) {
+        if (user.getName() == null || user.getName().isEmpty()) {
+            user.setName(user.getLogin());
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package ru.yandex.practicum.shard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import ru.yandex.practicum.exception.ErrorResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * HTTP-вызовы других узлов: пересылка запросов клиентов владельцу записи и служебные
+ * запросы /shard. Узел, который не ответил за timeout, считается недоступным: клиент
+ * получает 503 с Retry-After.
+ */
+@Slf4j
+public class ShardClient {
+
+    /** Заголовок пересланного запроса; значение — адрес исходного клиента. */
+    public static final String FORWARDED_HEADER = "X-Filmorate-Forwarded-For";
+
+    private static final List<String> REQUEST_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT,
+            HttpHeaders.IF_MATCH, HttpHeaders.IF_NONE_MATCH);
+    private static final List<String> RESPONSE_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG,
+            HttpHeaders.RETRY_AFTER);
+    private static final long UNAVAILABLE_RETRY_AFTER_SECONDS = 1;
+
+    private final ShardMap shardMap;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper;
+    private final HttpClient client;
+
+    public ShardClient(ShardMap shardMap, Duration timeout, ObjectMapper objectMapper) {
+        this.shardMap = shardMap;
+        this.timeout = timeout;
+        this.objectMapper = objectMapper;
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    /**
+     * Пересылает запрос клиента узлу shard и копирует его ответ. Тело передаётся потоком,
+     * не собираясь в памяти: так пересылаются и большие тела, например пакетная загрузка.
+     */
+    public void forward(int shard, String path, HttpServletRequest request,
+                        HttpServletResponse response) throws IOException {
+        long length = request.getContentLengthLong();
+        HttpRequest.BodyPublisher body;
+        if (length == 0 || length < 0 && request.getHeader(HttpHeaders.TRANSFER_ENCODING) == null) {
+            body = HttpRequest.BodyPublishers.noBody();
+        } else {
+            InputStream in = request.getInputStream();
+            HttpRequest.BodyPublisher stream = HttpRequest.BodyPublishers.ofInputStream(() -> in);
+            body = length > 0 ? HttpRequest.BodyPublishers.fromPublisher(stream, length) : stream;
+        }
+        forward(shard, path, request, body, response);
+    }
+
+    /**
+     * То же для тела, которое фильтр уже прочитал, чтобы узнать владельца записи.
+     */
+    public void forward(int shard, String path, HttpServletRequest request, byte[] body,
+                        HttpServletResponse response) throws IOException {
+        forward(shard, path, request, body.length == 0
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(body), response);
+    }
+
+    private void forward(int shard, String path, HttpServletRequest request, HttpRequest.BodyPublisher body,
+                         HttpServletResponse response) throws IOException {
+        HttpRequest.Builder builder = newRequest(shard, path, request.getQueryString(), request.getRemoteAddr())
+                .method(request.getMethod(), body);
+        for (String header : REQUEST_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                builder.header(header, value);
+            }
+        }
+        HttpResponse<byte[]> forwarded;
+        try {
+            forwarded = client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            unavailable(shard, response, e);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unavailable(shard, response, e);
+            return;
+        }
+        copy(forwarded, response);
+    }
+
+    /**
+     * Страница списка узла shard в JSON с теми же параметрами, что у запроса клиента.
+     */
+    public CompletableFuture<HttpResponse<byte[]>> getPage(int shard, String path, HttpServletRequest request) {
+        return client.sendAsync(newRequest(shard, path, request.getQueryString(), request.getRemoteAddr())
+                        .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                        .GET()
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Служебный запрос к узлу shard.
+     *
+     * @param parameters пары имя, значение; значения кодируются
+     */
+    public HttpResponse<byte[]> call(int shard, String method, String path, String... parameters)
+            throws IOException, InterruptedException {
+        StringBuilder query = new StringBuilder();
+        for (int i = 0; i < parameters.length; i += 2) {
+            query.append(i == 0 ? "" : "&").append(parameters[i]).append('=')
+                    .append(URLEncoder.encode(parameters[i + 1], StandardCharsets.UTF_8));
+        }
+        return client.send(newRequest(shard, path, query.toString(), null)
+                        .method(method, HttpRequest.BodyPublishers.noBody())
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    public void copy(HttpResponse<byte[]> from, HttpServletResponse to) throws IOException {
+        to.setStatus(from.statusCode());
+        for (String header : RESPONSE_HEADERS) {
+            from.headers().firstValue(header).ifPresent(value -> to.setHeader(header, value));
+        }
+        to.getOutputStream().write(from.body());
+    }
+
+    public void unavailable(int shard, HttpServletResponse response, Throwable cause) throws IOException {
+        log.warn("Узел {} ({}) не ответил: {}", shard, shardMap.node(shard), cause.toString());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(UNAVAILABLE_RETRY_AFTER_SECONDS));
+        writeError(response, HttpStatus.SERVICE_UNAVAILABLE, "Узел " + shard + " недоступен, повторите запрос позже");
+    }
+
+    public void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(message));
+    }
+
+    /**
+     * Сообщение из тела ErrorResponse другого узла.
+     */
+    public String errorMessage(HttpResponse<byte[]> response) throws IOException {
+        return objectMapper.readTree(response.body()).path("message").asText();
+    }
+
+    private HttpRequest.Builder newRequest(int shard, String path, String query, String clientAddress) {
+        URI uri = URI.create(shardMap.node(shard) + path + (query == null || query.isEmpty() ? "" : "?" + query));
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(timeout);
+        return clientAddress == null ? builder : builder.header(FORWARDED_HEADER, clientAddress);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.yandex.practicum.shard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.storage.IdRange;
+
+import java.util.Optional;
+
+@Configuration
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "filmorate.shard", name = "enabled", havingValue = "true")
+    public ShardMap shardMap(ShardProperties properties) {
+        return new ShardMap(properties.getNodes(), properties.getIndex());
+    }
+
+    /**
+     * Диапазон id новых фильмов и пользователей этого узла; без шардирования — все id.
+     */
+    @Bean
+    public IdRange idRange(Optional<ShardMap> shardMap) {
+        return shardMap.map(ShardMap::localRange).orElse(IdRange.ALL);
+    }
+
+    /**
+     * Блокировка держится, пока узел опрашивает остальные узлы и сохраняет пользователя.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "filmorate.shard", name = "enabled", havingValue = "true")
+    public UniqueKeyLocks uniqueKeyLocks(ShardProperties properties) {
+        return new UniqueKeyLocks(properties.getTimeout().multipliedBy(properties.getNodes().size() + 2L));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "filmorate.shard", name = "enabled", havingValue = "true")
+    public ShardRoutingFilter shardRoutingFilter(ShardMap shardMap, ShardProperties properties,
+                                                 UniqueKeyLocks uniqueKeyLocks, ObjectMapper objectMapper) {
+        return new ShardRoutingFilter(shardMap, new ShardClient(shardMap, properties.getTimeout(), objectMapper),
+                uniqueKeyLocks, objectMapper, properties.getMaxBodySize());
+    }
+}
@@ -0,0 +1,69 @@
+package ru.yandex.practicum.shard;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import ru.yandex.practicum.exception.ConflictException;
+import ru.yandex.practicum.storage.user.UserStorage;
+
+/**
+ * Служебные запросы, которыми узлы проверяют уникальность логина и почты друг у друга.
+ * Принимаются только с адресов узлов кластера.
+ */
+@RestController
+@RequestMapping("/shard")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "filmorate.shard", name = "enabled", havingValue = "true")
+public class ShardController {
+
+    private final ShardMap shardMap;
+    private final UniqueKeyLocks locks;
+    private final UserStorage userStorage;
+
+    @PutMapping("/locks")
+    public ResponseEntity<Void> lock(@RequestParam("key") String key, @RequestParam("token") String token,
+                                     HttpServletRequest request) {
+        checkPeer(request);
+        return ResponseEntity.status(locks.tryLock(key, token) ? HttpStatus.NO_CONTENT : HttpStatus.CONFLICT).build();
+    }
+
+    @DeleteMapping("/locks")
+    public ResponseEntity<Void> unlock(@RequestParam("key") String key, @RequestParam("token") String token,
+                                       HttpServletRequest request) {
+        checkPeer(request);
+        locks.unlock(key, token);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * 204, если логин и почта на этом узле свободны, иначе 409 с тем же сообщением,
+     * что и при добавлении пользователя.
+     */
+    @GetMapping("/users/taken")
+    public ResponseEntity<Void> taken(@RequestParam("login") String login, @RequestParam("email") String email,
+                                      HttpServletRequest request) {
+        checkPeer(request);
+        if (userStorage.isLoginTaken(login)) {
+            throw new ConflictException("Логин " + login + " уже используется");
+        }
+        if (userStorage.isEmailTaken(email)) {
+            throw new ConflictException("Электронная почта " + email + " уже используется");
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private void checkPeer(HttpServletRequest request) {
+        if (!shardMap.isPeer(request.getRemoteAddr())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Запрос доступен только узлам кластера");
+        }
+    }
+}
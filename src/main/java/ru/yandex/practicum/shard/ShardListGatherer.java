@@ -0,0 +1,148 @@
+package ru.yandex.practicum.shard;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Собирает GET /films и GET /users со всех узлов, чей диапазон id может попасть на страницу.
+ * Узлы опрашиваются параллельно; диапазоны id упорядочены по номерам узлов, поэтому страницы
+ * склеиваются в этом порядке и обрезаются до limit. Поддерживается только постраничное чтение
+ * по id: фильтры, сортировка, since и NDJSON отклоняются, чтобы не вернуть часть данных как целое.
+ */
+class ShardListGatherer {
+
+    private static final Set<String> PAGE_PARAMETERS = Set.of("after", "limit");
+    // Как в контроллерах: страница без limit, но с after
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final ShardMap shardMap;
+    private final ShardClient client;
+    private final JsonFactory jsonFactory;
+
+    ShardListGatherer(ShardMap shardMap, ShardClient client, JsonFactory jsonFactory) {
+        this.shardMap = shardMap;
+        this.client = client;
+        this.jsonFactory = jsonFactory;
+    }
+
+    void gather(String path, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE)
+                || !PAGE_PARAMETERS.containsAll(request.getParameterMap().keySet())) {
+            client.writeError(response, HttpStatus.BAD_REQUEST, "При нескольких узлах список читается только "
+                    + "постранично по id, с параметрами after и limit");
+            return;
+        }
+        Integer after;
+        Integer limit;
+        try {
+            after = parse(request.getParameter("after"));
+            limit = parse(request.getParameter("limit"));
+        } catch (NumberFormatException e) {
+            chain.doFilter(request, response);
+            return;
+        }
+        int pageSize = after == null && limit == null ? Integer.MAX_VALUE
+                : limit == null ? MAX_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        int first = after == null ? 0 : shardMap.ownerOf(after == Integer.MAX_VALUE ? after : after + 1);
+
+        int local = shardMap.localIndex();
+        List<CompletableFuture<HttpResponse<byte[]>>> remote = new ArrayList<>(shardMap.size());
+        for (int shard = 0; shard < shardMap.size(); shard++) {
+            remote.add(shard >= first && shard != local ? client.getPage(shard, path, request) : null);
+        }
+        byte[][] pages = new byte[shardMap.size()][];
+        if (local >= first) {
+            BufferedResponse localPage = new BufferedResponse(response);
+            chain.doFilter(new UnconditionalRequest(request), localPage);
+            if (localPage.getStatus() != HttpStatus.OK.value()) {
+                response.setStatus(localPage.getStatus());
+                if (localPage.getContentType() != null) {
+                    response.setContentType(localPage.getContentType());
+                }
+                response.getOutputStream().write(localPage.toByteArray());
+                return;
+            }
+            pages[local] = localPage.toByteArray();
+        }
+        for (int shard = first; shard < shardMap.size(); shard++) {
+            if (remote.get(shard) == null) {
+                continue;
+            }
+            HttpResponse<byte[]> page;
+            try {
+                page = remote.get(shard).join();
+            } catch (CompletionException e) {
+                client.unavailable(shard, response, e.getCause());
+                return;
+            }
+            if (page.statusCode() != HttpStatus.OK.value()) {
+                client.copy(page, response);
+                return;
+            }
+            pages[shard] = page.body();
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(merge(pages, pageSize));
+    }
+
+    /**
+     * Склеивает JSON-массивы без разбора записей: элементы копируются байтами по их границам.
+     * Страница, прочитанная до конца, должна закончиться массивом без лишних данных после него.
+     */
+    private byte[] merge(byte[][] pages, int limit) throws IOException {
+        ByteArrayOutputStream merged = new ByteArrayOutputStream();
+        merged.write('[');
+        int count = 0;
+        for (byte[] page : pages) {
+            if (page == null || count >= limit) {
+                continue;
+            }
+            try (JsonParser parser = jsonFactory.createParser(page)) {
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("Узел вернул не JSON-массив");
+                }
+                JsonToken token;
+                while (count < limit && (token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token != JsonToken.START_OBJECT) {
+                        throw new IOException("Узел вернул в массиве не объект: " + token);
+                    }
+                    long start = parser.currentTokenLocation().getByteOffset();
+                    parser.skipChildren();
+                    long end = parser.currentLocation().getByteOffset();
+                    if (count++ > 0) {
+                        merged.write(',');
+                    }
+                    merged.write(page, Math.toIntExact(start), Math.toIntExact(end - start));
+                }
+                if (count < limit && parser.nextToken() != null) {
+                    throw new IOException("Узел вернул данные после JSON-массива");
+                }
+            }
+        }
+        merged.write(']');
+        return merged.toByteArray();
+    }
+
+    private static Integer parse(String value) {
+        return value == null ? null : Integer.valueOf(value);
+    }
+}
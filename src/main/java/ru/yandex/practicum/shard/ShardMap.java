@@ -0,0 +1,94 @@
+package ru.yandex.practicum.shard;
+
+import ru.yandex.practicum.storage.IdRange;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Разбиение id на непрерывные диапазоны по числу узлов: узел i владеет id от i * rangeSize + 1,
+ * последний — всеми id до Integer.MAX_VALUE. Владелец записи вычисляется по её id без обращения
+ * к другим узлам, а записи узлов с меньшим номером всегда имеют меньшие id.
+ */
+public class ShardMap {
+
+    private final List<URI> nodes;
+    private final int localIndex;
+    private final int rangeSize;
+    private final Set<InetAddress> peerAddresses;
+
+    public ShardMap(List<String> nodes, int localIndex) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Не заданы адреса узлов (filmorate.shard.nodes)");
+        }
+        if (localIndex < 0 || localIndex >= nodes.size()) {
+            throw new IllegalArgumentException("Номер узла " + localIndex + " вне списка из " + nodes.size()
+                    + " узлов");
+        }
+        List<URI> uris = new ArrayList<>(nodes.size());
+        Set<InetAddress> addresses = new HashSet<>();
+        for (String node : nodes) {
+            URI uri = URI.create(node.endsWith("/") ? node.substring(0, node.length() - 1) : node);
+            if (uri.getHost() == null) {
+                throw new IllegalArgumentException("Адрес узла должен содержать хост: " + node);
+            }
+            uris.add(uri);
+            try {
+                Collections.addAll(addresses, InetAddress.getAllByName(uri.getHost()));
+            } catch (UnknownHostException e) {
+                throw new IllegalArgumentException("Не удалось определить адрес узла " + node, e);
+            }
+        }
+        this.nodes = List.copyOf(uris);
+        this.localIndex = localIndex;
+        this.rangeSize = Integer.MAX_VALUE / nodes.size();
+        this.peerAddresses = Set.copyOf(addresses);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public int localIndex() {
+        return localIndex;
+    }
+
+    public URI node(int index) {
+        return nodes.get(index);
+    }
+
+    public int ownerOf(int id) {
+        return id <= 0 ? 0 : Math.min((id - 1) / rangeSize, nodes.size() - 1);
+    }
+
+    public boolean isLocal(int id) {
+        return ownerOf(id) == localIndex;
+    }
+
+    public IdRange range(int index) {
+        int first = index * rangeSize + 1;
+        return new IdRange(first, index == nodes.size() - 1 ? Integer.MAX_VALUE : first + rangeSize - 1);
+    }
+
+    public IdRange localRange() {
+        return range(localIndex);
+    }
+
+    /**
+     * Пришёл ли запрос с адреса одного из узлов. Принимает только IP-адрес в текстовом виде,
+     * как его возвращает {@code ServletRequest.getRemoteAddr()}, поэтому DNS не запрашивается.
+     */
+    public boolean isPeer(String remoteAddress) {
+        try {
+            return peerAddresses.contains(InetAddress.getByName(remoteAddress));
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
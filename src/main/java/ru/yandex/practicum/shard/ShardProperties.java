@@ -0,0 +1,24 @@
+package ru.yandex.practicum.shard;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.shard")
+public class ShardProperties {
+    /** Работать одним из узлов шардированного кластера. */
+    private boolean enabled;
+    /** Номер этого узла в списке nodes, с нуля. */
+    private int index;
+    /** Базовые адреса всех узлов в одном и том же порядке на каждом узле, например http://host:8080. */
+    private List<String> nodes = new ArrayList<>();
+    /** Сколько ждать ответа другого узла; затем клиент получает 503. */
+    private Duration timeout = Duration.ofSeconds(5);
+    /** Наибольшее тело одной записи, которое узел читает, чтобы найти владельца или проверить логин и почту. */
+    private DataSize maxBodySize = DataSize.ofKilobytes(64);
+}
@@ -0,0 +1,191 @@
+package ru.yandex.practicum.shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.yandex.practicum.controller.CachedBodyRequest;
+import ru.yandex.practicum.ratelimit.RateLimitFilter;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Направляет запросы к фильмам и пользователям узлу, которому принадлежит id записи:
+ * запросы по /films/{id} и /users/{id} и PUT /films, PUT /users (id берётся из тела).
+ * Чужие запросы пересылаются владельцу через {@link ShardClient}, тело — потоком; списки собираются
+ * {@link ShardListGatherer}. Новые записи (POST) создаёт узел, принявший запрос, в своём
+ * диапазоне id; логин и почту пользователя перед сохранением проверяет {@link UniqueUserGuard}.
+ * Лайки и дружба связывают записи одного узла: для пары с разных узлов ответ 501.
+ * <p>
+ * Выполняется раньше ограничения частоты: лимиты применяет узел, который обрабатывает запрос,
+ * к адресу исходного клиента из {@link ShardClient#FORWARDED_HEADER}. Заголовку верят только
+ * у запросов с адресов узлов кластера.
+ * <p>
+ * Тело читается в память только там, где фильтру нужно его содержимое: id в PUT /films и PUT /users,
+ * логин и почта пользователя. Такое тело — одна запись, больше maxBodySize оно не бывает: иначе 413.
+ */
+public class ShardRoutingFilter extends OncePerRequestFilter implements Ordered {
+
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+
+    private static final Pattern ENTITY_PATH = Pattern.compile("/(?:films|users)/(\\d{1,10})(?:/.*)?");
+    private static final Pattern LIKE_PATH = Pattern.compile("/films/(\\d{1,10})/like/(\\d{1,10})");
+    private static final Pattern FRIEND_PATH = Pattern.compile("/users/(\\d{1,10})/friends(?:/common)?/(\\d{1,10})");
+    private static final Pattern COLLECTION_PATH = Pattern.compile("/(?:films|users)");
+    private static final String USERS_PATH = "/users";
+    private static final String USERS_BATCH_PATH = "/users/batch";
+
+    private final ShardMap shardMap;
+    private final ShardClient client;
+    private final ShardListGatherer gatherer;
+    private final UniqueUserGuard uniqueUsers;
+    private final ObjectMapper objectMapper;
+    private final int maxBodyBytes;
+
+    public ShardRoutingFilter(ShardMap shardMap, ShardClient client, UniqueKeyLocks locks, ObjectMapper objectMapper,
+                              DataSize maxBodySize) {
+        this.shardMap = shardMap;
+        this.client = client;
+        this.gatherer = new ShardListGatherer(shardMap, client, objectMapper.getFactory());
+        this.uniqueUsers = new UniqueUserGuard(shardMap, client, locks, objectMapper);
+        this.objectMapper = objectMapper;
+        // Массив длиной maxBodyBytes + 1 должен поместиться в Java
+        this.maxBodyBytes = (int) Math.min(maxBodySize.toBytes(), Integer.MAX_VALUE - 16);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        String forwardedFor = request.getHeader(ShardClient.FORWARDED_HEADER);
+        if (forwardedFor != null && shardMap.isPeer(request.getRemoteAddr())) {
+            request.setAttribute(RateLimitFilter.CLIENT_ATTRIBUTE, forwardedFor);
+            if (USERS_PATH.equals(path) && "PUT".equals(method)) {
+                checkUser(request, response, chain);
+            } else {
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+        Matcher entity = ENTITY_PATH.matcher(path);
+        if (entity.matches()) {
+            int owner = ownerOf(Long.parseLong(entity.group(1)));
+            if (crossesNodes(path, response)) {
+                return;
+            }
+            if (owner == shardMap.localIndex()) {
+                chain.doFilter(request, response);
+            } else {
+                client.forward(owner, path, request, response);
+            }
+            return;
+        }
+        if (USERS_BATCH_PATH.equals(path) && "POST".equals(method)) {
+            client.writeError(response, HttpStatus.NOT_IMPLEMENTED, "При нескольких узлах пользователи "
+                    + "добавляются по одному: логин и почта каждого проверяются на всех узлах");
+            return;
+        }
+        if (USERS_PATH.equals(path) && "POST".equals(method)) {
+            checkUser(request, response, chain);
+            return;
+        }
+        if (COLLECTION_PATH.matcher(path).matches()) {
+            if ("PUT".equals(method)) {
+                byte[] body = readBody(request, response);
+                if (body == null) {
+                    return;
+                }
+                int owner = ownerOf(body);
+                if (owner != shardMap.localIndex()) {
+                    client.forward(owner, path, request, body, response);
+                } else if (USERS_PATH.equals(path)) {
+                    uniqueUsers.check(request, body, response, chain);
+                } else {
+                    chain.doFilter(new CachedBodyRequest(request, body), response);
+                }
+                return;
+            }
+            if ("GET".equals(method)) {
+                gatherer.gather(path, request, response, chain);
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private void checkUser(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        byte[] body = readBody(request, response);
+        if (body != null) {
+            uniqueUsers.check(request, body, response, chain);
+        }
+    }
+
+    /**
+     * @return тело запроса; null, если оно больше maxBodySize и клиенту уже отправлен 413
+     */
+    private byte[] readBody(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        byte[] body = request.getContentLengthLong() > maxBodyBytes
+                ? null
+                : request.getInputStream().readNBytes(maxBodyBytes + 1);
+        if (body == null || body.length > maxBodyBytes) {
+            client.writeError(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Тело запроса не может быть больше " + maxBodyBytes + " байт");
+            return null;
+        }
+        return body;
+    }
+
+    /**
+     * Лайк и дружба хранятся на узле первой записи, и узел проверяет вторую запись по своему
+     * хранилищу. Для записей разных узлов такая проверка дала бы ложный 404, поэтому пара
+     * отклоняется явно.
+     */
+    private boolean crossesNodes(String path, HttpServletResponse response) throws IOException {
+        Matcher like = LIKE_PATH.matcher(path);
+        if (like.matches() && ownerOf(Long.parseLong(like.group(1))) != ownerOf(Long.parseLong(like.group(2)))) {
+            client.writeError(response, HttpStatus.NOT_IMPLEMENTED,
+                    "Фильм и пользователь хранятся на разных узлах: лайки между узлами не поддерживаются");
+            return true;
+        }
+        Matcher friend = FRIEND_PATH.matcher(path);
+        if (friend.matches()
+                && ownerOf(Long.parseLong(friend.group(1))) != ownerOf(Long.parseLong(friend.group(2)))) {
+            client.writeError(response, HttpStatus.NOT_IMPLEMENTED,
+                    "Пользователи хранятся на разных узлах: дружба между узлами не поддерживается");
+            return true;
+        }
+        return false;
+    }
+
+    private int ownerOf(long id) {
+        // id вне int контроллер отклонит сам
+        return id > Integer.MAX_VALUE ? shardMap.localIndex() : shardMap.ownerOf((int) id);
+    }
+
+    private int ownerOf(byte[] body) {
+        try {
+            JsonNode id = objectMapper.readTree(body).get("id");
+            if (id != null && id.canConvertToInt()) {
+                return shardMap.ownerOf(id.intValue());
+            }
+        } catch (IOException e) {
+            // Некорректное тело отклонит контроллер этого узла
+        }
+        return shardMap.localIndex();
+    }
+}
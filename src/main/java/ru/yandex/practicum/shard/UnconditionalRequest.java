@@ -0,0 +1,39 @@
+package ru.yandex.practicum.shard;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Collections;
+import java.util.Enumeration;
+
+/**
+ * Локальная часть собираемого списка: без If-None-Match, иначе узел ответит 304
+ * по версии только своей коллекции.
+ */
+class UnconditionalRequest extends HttpServletRequestWrapper {
+
+    UnconditionalRequest(HttpServletRequest request) {
+        super(request);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return isConditional(name) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        return isConditional(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+    }
+
+    @Override
+    public long getDateHeader(String name) {
+        return isConditional(name) ? -1 : super.getDateHeader(name);
+    }
+
+    private static boolean isConditional(String name) {
+        return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name)
+                || HttpHeaders.IF_MODIFIED_SINCE.equalsIgnoreCase(name);
+    }
+}
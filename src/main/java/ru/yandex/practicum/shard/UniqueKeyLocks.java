@@ -0,0 +1,38 @@
+package ru.yandex.practicum.shard;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Блокировки логинов и почт, за которые отвечает этот узел. Узел, добавляющий или меняющий
+ * пользователя, держит блокировку, пока проверяет остальные узлы и сохраняет запись, поэтому
+ * два узла не могут одновременно занять один логин. Блокировка выдаётся на срок lease:
+ * если узел-держатель упал, ключ освобождается сам.
+ */
+public class UniqueKeyLocks {
+
+    private final ConcurrentHashMap<String, Lease> leases = new ConcurrentHashMap<>();
+    private final long leaseNanos;
+
+    public UniqueKeyLocks(Duration lease) {
+        leaseNanos = lease.toNanos();
+    }
+
+    /**
+     * @param token кто берёт блокировку; снять её можно только с тем же token
+     * @return false, если ключ уже заблокирован другим держателем
+     */
+    public boolean tryLock(String key, String token) {
+        long now = System.nanoTime();
+        Lease lease = leases.compute(key, (k, current) ->
+                current == null || current.expiresAt - now <= 0 ? new Lease(token, now + leaseNanos) : current);
+        return lease.token.equals(token);
+    }
+
+    public void unlock(String key, String token) {
+        leases.computeIfPresent(key, (k, current) -> current.token.equals(token) ? null : current);
+    }
+
+    private record Lease(String token, long expiresAt) {
+    }
+}
@@ -0,0 +1,145 @@
+package ru.yandex.practicum.shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import ru.yandex.practicum.controller.CachedBodyRequest;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Уникальность логина и почты по всем узлам. Пользователя сохраняет один узел, а логин и почта
+ * могут быть заняты на любом. Поэтому перед добавлением или изменением пользователя узел
+ * блокирует оба ключа на узлах, которые за них отвечают (по хешу ключа), спрашивает остальные
+ * узлы, свободны ли логин и почта, и только потом передаёт запрос дальше. Блокировки снимаются
+ * после ответа, так что два узла не займут один логин одновременно.
+ */
+@Slf4j
+class UniqueUserGuard {
+
+    static final String LOCKS_PATH = "/shard/locks";
+    static final String TAKEN_PATH = "/shard/users/taken";
+
+    private final ShardMap shardMap;
+    private final ShardClient client;
+    private final UniqueKeyLocks locks;
+    private final ObjectMapper objectMapper;
+
+    UniqueUserGuard(ShardMap shardMap, ShardClient client, UniqueKeyLocks locks, ObjectMapper objectMapper) {
+        this.shardMap = shardMap;
+        this.client = client;
+        this.locks = locks;
+        this.objectMapper = objectMapper;
+    }
+
+    void check(HttpServletRequest request, byte[] body, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String login = null;
+        String email = null;
+        try {
+            JsonNode user = objectMapper.readTree(body);
+            login = user.path("login").textValue();
+            email = user.path("email").textValue();
+        } catch (IOException e) {
+            // Некорректное тело отклонит контроллер
+        }
+        if (login == null || email == null) {
+            chain.doFilter(new CachedBodyRequest(request, body), response);
+            return;
+        }
+        String token = UUID.randomUUID().toString();
+        List<String> locked = new ArrayList<>(2);
+        try {
+            for (String key : List.of("login:" + login, "email:" + email.trim().toLowerCase(Locale.ROOT))) {
+                Boolean acquired = lock(key, token, response);
+                if (acquired == null) {
+                    return;
+                }
+                if (!acquired) {
+                    client.writeError(response, HttpStatus.CONFLICT, "Логин " + login + " или почта " + email
+                            + " сейчас сохраняются другим запросом");
+                    return;
+                }
+                locked.add(key);
+            }
+            for (int shard = 0; shard < shardMap.size(); shard++) {
+                if (shard == shardMap.localIndex()) {
+                    continue;
+                }
+                HttpResponse<byte[]> taken = call(shard, response, "GET", TAKEN_PATH, "login", login, "email", email);
+                if (taken == null) {
+                    return;
+                }
+                if (taken.statusCode() == HttpStatus.CONFLICT.value()) {
+                    client.writeError(response, HttpStatus.CONFLICT, client.errorMessage(taken));
+                    return;
+                }
+            }
+            chain.doFilter(new CachedBodyRequest(request, body), response);
+        } finally {
+            for (String key : locked) {
+                unlock(key, token);
+            }
+        }
+    }
+
+    /**
+     * @return null, если узел-владелец ключа недоступен и клиенту уже отправлен 503
+     */
+    private Boolean lock(String key, String token, HttpServletResponse response) throws IOException {
+        int owner = ownerOf(key);
+        if (owner == shardMap.localIndex()) {
+            return locks.tryLock(key, token);
+        }
+        HttpResponse<byte[]> locked = call(owner, response, "PUT", LOCKS_PATH, "key", key, "token", token);
+        return locked == null ? null : locked.statusCode() == HttpStatus.NO_CONTENT.value();
+    }
+
+    private void unlock(String key, String token) {
+        int owner = ownerOf(key);
+        if (owner == shardMap.localIndex()) {
+            locks.unlock(key, token);
+            return;
+        }
+        try {
+            client.call(owner, "DELETE", LOCKS_PATH, "key", key, "token", token);
+        } catch (IOException e) {
+            // Блокировка снимется сама по истечении срока
+            log.debug("Не удалось снять блокировку {} на узле {}: {}", key, owner, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private HttpResponse<byte[]> call(int shard, HttpServletResponse response, String method, String path,
+                                      String... parameters) throws IOException {
+        try {
+            HttpResponse<byte[]> result = client.call(shard, method, path, parameters);
+            int status = result.statusCode();
+            if (status != HttpStatus.NO_CONTENT.value() && status != HttpStatus.CONFLICT.value()) {
+                throw new IOException("ответ " + status + " на " + method + " " + path);
+            }
+            return result;
+        } catch (IOException e) {
+            client.unavailable(shard, response, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            client.unavailable(shard, response, e);
+        }
+        return null;
+    }
+
+    private int ownerOf(String key) {
+        return Math.floorMod(key.hashCode(), shardMap.size());
+    }
+}
@@ -0,0 +1,149 @@
+package ru.yandex.practicum.storage;
+
+import ru.yandex.practicum.model.Versioned;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Таблица, в которой поля записей хранятся по столбцам в страницах по {@value #PAGE_SIZE} записей;
+ * номер страницы и позиция в ней вычисляются из id, поэтому ни ключей, ни отдельных объектов на запись нет.
+ * Объект модели создаётся при каждом чтении и не связан с таблицей.
+ * <p>
+ * Столбец версий служит и признаком наличия записи (0 — записи нет), и счётчиком seqlock:
+ * на время записи в нём стоит {@link #WRITING}, а читатель перечитывает версию после полей
+ * и повторяет чтение, если она изменилась. Чтение блокировок не берёт.
+ */
+public abstract class ColumnarTable<T extends Versioned, P extends ColumnarTable.Page> implements EntityTable<T> {
+
+    protected static final int PAGE_BITS = 12;
+    protected static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final long WRITING = -1;
+    private static final VarHandle VERSIONS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final ReentrantLock growLock = new ReentrantLock();
+    private final AtomicInteger size = new AtomicInteger();
+    // Границы занятых id: у узла шарда id начинаются не с 1, обход вне них бесполезен
+    private final AtomicInteger minId = new AtomicInteger(Integer.MAX_VALUE);
+    private final AtomicInteger maxId = new AtomicInteger();
+    private volatile Page[] pages = new Page[16];
+
+    protected abstract P newPage();
+
+    protected abstract void write(P page, int slot, T entity);
+
+    protected abstract T read(P page, int slot, int id, long version);
+
+    @Override
+    public T get(int id) {
+        P page = page(id, false);
+        if (page == null) {
+            return null;
+        }
+        int slot = id & (PAGE_SIZE - 1);
+        while (true) {
+            long version = (long) VERSIONS.getAcquire(page.versions, slot);
+            if (version == 0) {
+                return null;
+            }
+            if (version != WRITING) {
+                T entity = read(page, slot, id, version);
+                VarHandle.acquireFence();
+                if ((long) VERSIONS.getOpaque(page.versions, slot) == version) {
+                    return entity;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public void put(T entity) {
+        int id = entity.getId();
+        if (id <= 0 || entity.getVersion() <= 0) {
+            throw new IllegalArgumentException("Запись должна иметь положительные id и версию: " + id
+                    + ", " + entity.getVersion());
+        }
+        P page = page(id, true);
+        int slot = id & (PAGE_SIZE - 1);
+        long previous;
+        while (true) {
+            previous = (long) VERSIONS.getAcquire(page.versions, slot);
+            if (previous != WRITING && VERSIONS.compareAndSet(page.versions, slot, previous, WRITING)) {
+                break;
+            }
+            Thread.onSpinWait();
+        }
+        write(page, slot, entity);
+        VERSIONS.setRelease(page.versions, slot, entity.getVersion());
+        if (previous == 0) {
+            size.incrementAndGet();
+            minId.accumulateAndGet(id, Math::min);
+            maxId.accumulateAndGet(id, Math::max);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public Stream<T> ascendingAfter(int afterId) {
+        int max = maxId.get();
+        if (afterId >= max) {
+            return Stream.empty();
+        }
+        return IntStream.rangeClosed(Math.max(afterId + 1, minId.get()), max)
+                .mapToObj(this::get)
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public Stream<T> descendingBefore(int beforeId) {
+        int from = (int) Math.min(beforeId - 1L, maxId.get());
+        int min = minId.get();
+        return IntStream.iterate(from, id -> id >= min, id -> id - 1)
+                .mapToObj(this::get)
+                .filter(Objects::nonNull);
+    }
+
+    @SuppressWarnings("unchecked")
+    private P page(int id, boolean create) {
+        int index = id >>> PAGE_BITS;
+        Page[] current = pages;
+        if (index < current.length && current[index] != null) {
+            return (P) current[index];
+        }
+        if (!create) {
+            return null;
+        }
+        growLock.lock();
+        try {
+            current = pages;
+            if (index >= current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, index + 1));
+            }
+            if (current[index] == null) {
+                current[index] = newPage();
+            }
+            pages = current;
+            return (P) current[index];
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    /**
+     * Страница столбцов; наследники добавляют массивы своих полей длиной {@link #PAGE_SIZE}.
+     */
+    protected static class Page {
+        final long[] versions = new long[PAGE_SIZE];
+    }
+}
@@ -0,0 +1,25 @@
+package ru.yandex.practicum.storage;
+
+import ru.yandex.practicum.model.Versioned;
+
+import java.util.stream.Stream;
+
+/**
+ * Записи хранилища по id. Хранилище само упорядочивает изменения одной записи,
+ * таблица лишь хранит последнюю версию каждой записи и отдаёт их по возрастанию или убыванию id.
+ */
+public interface EntityTable<T extends Versioned> {
+
+    /**
+     * @return запись или null, если записи с таким id нет
+     */
+    T get(int id);
+
+    void put(T entity);
+
+    int size();
+
+    Stream<T> ascendingAfter(int afterId);
+
+    Stream<T> descendingBefore(int beforeId);
+}
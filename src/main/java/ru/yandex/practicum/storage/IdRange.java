@@ -0,0 +1,20 @@
+package ru.yandex.practicum.storage;
+
+/**
+ * Диапазон id, которые хранилище присваивает новым записям. Без шардирования это все
+ * положительные int; в режиме шардирования у каждого узла свой непересекающийся диапазон.
+ */
+public record IdRange(int first, int last) {
+
+    public static final IdRange ALL = new IdRange(1, Integer.MAX_VALUE);
+
+    public IdRange {
+        if (first <= 0 || last < first) {
+            throw new IllegalArgumentException("Некорректный диапазон id: " + first + ".." + last);
+        }
+    }
+
+    public boolean contains(int id) {
+        return id >= first && id <= last;
+    }
+}
@@ -0,0 +1,40 @@
+package ru.yandex.practicum.storage;
+
+import ru.yandex.practicum.model.Versioned;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Упорядоченная по id неблокирующая карта: запись не требует общих блокировок,
+ * а итерация не ломается при параллельных изменениях.
+ */
+public class SkipListTable<T extends Versioned> implements EntityTable<T> {
+
+    private final ConcurrentSkipListMap<Integer, T> entities = new ConcurrentSkipListMap<>();
+
+    @Override
+    public T get(int id) {
+        return entities.get(id);
+    }
+
+    @Override
+    public void put(T entity) {
+        entities.put(entity.getId(), entity);
+    }
+
+    @Override
+    public int size() {
+        return entities.size();
+    }
+
+    @Override
+    public Stream<T> ascendingAfter(int afterId) {
+        return entities.tailMap(afterId, false).values().stream();
+    }
+
+    @Override
+    public Stream<T> descendingBefore(int beforeId) {
+        return entities.headMap(beforeId, false).descendingMap().values().stream();
+    }
+}
@@ -0,0 +1,94 @@
+package ru.yandex.practicum.storage;
+
+import java.util.Arrays;
+
+/**
+ * Операции над отсортированными массивами id без повторов. Массивы не изменяются:
+ * вставка и удаление возвращают новую копию, чтобы её можно было опубликовать для чтения без блокировок.
+ */
+public final class SortedIntArrays {
+
+    public static final int[] EMPTY = new int[0];
+
+    private SortedIntArrays() {
+    }
+
+    /**
+     * @param ids массив или null, если его ещё нет
+     * @return тот же массив, если id уже есть
+     */
+    public static int[] insert(int[] ids, int id) {
+        if (ids == null) {
+            return new int[]{id};
+        }
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        int insertion = -position - 1;
+        int[] updated = new int[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, insertion);
+        updated[insertion] = id;
+        System.arraycopy(ids, insertion, updated, insertion + 1, ids.length - insertion);
+        return updated;
+    }
+
+    /**
+     * @return тот же массив, если id нет; null, если удалён последний элемент
+     */
+    public static int[] delete(int[] ids, int id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        int[] updated = new int[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+        return updated;
+    }
+
+    public static int[] intersect(int[] first, int[] second) {
+        int[] small = first.length <= second.length ? first : second;
+        int[] large = small == first ? second : first;
+        if (small.length == 0) {
+            return EMPTY;
+        }
+        int[] common = new int[small.length];
+        int size = 0;
+        // Если один список намного короче, дешевле искать его элементы двоичным поиском,
+        // чем проходить оба списка слиянием
+        if ((long) small.length * (32 - Integer.numberOfLeadingZeros(large.length)) < small.length + large.length) {
+            int from = 0;
+            for (int id : small) {
+                int position = Arrays.binarySearch(large, from, large.length, id);
+                if (position >= 0) {
+                    common[size++] = id;
+                    from = position + 1;
+                } else {
+                    from = -position - 1;
+                }
+                if (from == large.length) {
+                    break;
+                }
+            }
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < small.length && j < large.length) {
+                if (small[i] < large[j]) {
+                    i++;
+                } else if (small[i] > large[j]) {
+                    j++;
+                } else {
+                    common[size++] = small[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return Arrays.copyOf(common, size);
+    }
+}
@@ -0,0 +1,15 @@
+package ru.yandex.practicum.storage;
+
+/**
+ * Представление записей в памяти хранилищ.
+ */
+public enum StorageLayout {
+    /**
+     * Каждая запись — отдельный объект модели в упорядоченной карте.
+     */
+    OBJECTS,
+    /**
+     * Поля записей лежат в массивах примитивов по страницам, объекты модели создаются при чтении.
+     */
+    COLUMNAR
+}
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.storage;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.storage.film.FilmStorage;
+import ru.yandex.practicum.storage.user.UserStorage;
+
+/**
+ * Размеры хранилищ считываются только в момент запроса метрики, запись в хранилища не затрагивается.
+ */
+@Component
+@RequiredArgsConstructor
+public class StorageMetrics implements MeterBinder {
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("filmorate.storage.size", filmStorage, FilmStorage::size)
+                .tag("storage", "films")
+                .description("Количество фильмов в хранилище")
+                .register(registry);
+        Gauge.builder("filmorate.storage.size", userStorage, UserStorage::size)
+                .tag("storage", "users")
+                .description("Количество пользователей в хранилище")
+                .register(registry);
+    }
+}
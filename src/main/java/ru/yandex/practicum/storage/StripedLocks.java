@@ -0,0 +1,45 @@
+package ru.yandex.practicum.storage;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Набор блокировок, между которыми распределяются id сущностей.
+ * Позволяет упорядочить изменения одной записи, не блокируя остальные.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] locks;
+
+    public StripedLocks(int stripes) {
+        locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public ReentrantLock forId(int id) {
+        return locks[Math.floorMod(id, locks.length)];
+    }
+
+    /**
+     * Захватывает блокировки двух id в порядке номеров полос, поэтому встречные операции
+     * над одной парой (1, 2) и (2, 1) не взаимоблокируются.
+     */
+    public void lock(int firstId, int secondId) {
+        int first = Math.floorMod(firstId, locks.length);
+        int second = Math.floorMod(secondId, locks.length);
+        locks[Math.min(first, second)].lock();
+        if (first != second) {
+            locks[Math.max(first, second)].lock();
+        }
+    }
+
+    public void unlock(int firstId, int secondId) {
+        int first = Math.floorMod(firstId, locks.length);
+        int second = Math.floorMod(secondId, locks.length);
+        if (first != second) {
+            locks[Math.max(first, second)].unlock();
+        }
+        locks[Math.min(first, second)].unlock();
+    }
+}
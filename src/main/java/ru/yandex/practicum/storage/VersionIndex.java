@@ -0,0 +1,184 @@
+package ru.yandex.practicum.storage;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Версии записей одного хранилища. Каждое изменение получает следующий номер версии коллекции
+ * из атомарного счётчика; изменения одной записи упорядочены блокировкой её полосы, разные записи
+ * пишутся параллельно. Поэтому версии завершаются не по порядку, и {@link #current()} — это
+ * граница, до которой завершены все выданные версии: выборка «изменено после версии N»
+ * для N, полученного из current(), не пропускает изменений.
+ */
+public class VersionIndex {
+
+    public static final long NOT_WRITTEN = -1;
+
+    private static final int LOCK_STRIPES = 64;
+    // Сколько версий может выполняться одновременно; больше — новые ждут завершения старых
+    private static final int MAX_IN_FLIGHT = 1 << 12;
+    // Больше версий за раз пакет не берёт, чтобы оставить место остальным записям
+    private static final int MAX_BATCH = MAX_IN_FLIGHT / 4;
+
+    private final StripedLocks locks = new StripedLocks(LOCK_STRIPES);
+    private final ConcurrentSkipListMap<Long, Integer> idsByVersion = new ConcurrentSkipListMap<>();
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong completedUpTo = new AtomicLong();
+    // Слот версии v хранит v, когда она завершена
+    private final AtomicLongArray completed = new AtomicLongArray(MAX_IN_FLIGHT);
+
+    /**
+     * Выдаёт записи id новую версию и вызывает write, который публикует запись с этой версией.
+     * Все изменения записи идут через этот метод, поэтому write может читать текущую запись
+     * без дополнительных блокировок.
+     *
+     * @return false, если write ничего не записал; версия тогда остаётся пропуском в нумерации
+     */
+    public boolean publish(int id, Write write) {
+        return publish(id, () -> true, write);
+    }
+
+    /**
+     * То же, что {@link #publish(int, Write)}, но сначала под той же блокировкой проверяет
+     * условие изменения. Отказ (false или исключение) не расходует номер версии, поэтому
+     * отклонённые обновления не оставляют пропусков в нумерации.
+     */
+    public boolean publish(int id, BooleanSupplier precondition, Write write) {
+        ReentrantLock lock = locks.forId(id);
+        lock.lock();
+        try {
+            if (!precondition.getAsBoolean()) {
+                return false;
+            }
+            long next = issue();
+            try {
+                long previous = write.apply(next);
+                if (previous == NOT_WRITTEN) {
+                    return false;
+                }
+                idsByVersion.put(next, id);
+                idsByVersion.remove(previous);
+                return true;
+            } finally {
+                complete(next);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Публикует новые записи ids, которые ещё не видны другим потокам, поэтому блокировки полос
+     * не нужны. Записи делятся на части, каждая получает версии подряд, и write вызывается
+     * один раз на часть — например, чтобы записать её в журнал одним сбросом на диск.
+     * Исключение из write отменяет эту и следующие части; предыдущие остаются опубликованными.
+     */
+    public void publishAll(int[] ids, BatchWrite write) {
+        for (int from = 0; from < ids.length; from += MAX_BATCH) {
+            int to = Math.min(from + MAX_BATCH, ids.length);
+            long first = issue(to - from);
+            try {
+                write.apply(from, to, first);
+                for (int i = from; i < to; i++) {
+                    idsByVersion.put(first + i - from, ids[i]);
+                }
+            } finally {
+                for (long version = first; version < first + to - from; version++) {
+                    complete(version);
+                }
+            }
+        }
+    }
+
+    /**
+     * Регистрирует запись, восстановленную из журнала или снимка, с её сохранённой версией.
+     * Записи, сохранённые до появления версий (версия 0), получают следующую свободную.
+     * Вызывается при восстановлении, до того как хранилище начинает принимать изменения.
+     *
+     * @return версия, под которой запись зарегистрирована
+     */
+    public long restore(int id, long previousVersion, long restoredVersion) {
+        long assigned = restoredVersion > 0 ? restoredVersion : issued.get() + 1;
+        idsByVersion.remove(previousVersion);
+        idsByVersion.put(assigned, id);
+        issued.accumulateAndGet(assigned, Math::max);
+        completedUpTo.accumulateAndGet(assigned, Math::max);
+        return assigned;
+    }
+
+    public long current() {
+        return completedUpTo.get();
+    }
+
+    /**
+     * Id записей, изменённых после версии since, в порядке изменения. Изменения, которые ещё
+     * не вошли в {@link #current()}, не возвращаются: их клиент получит в следующей выборке.
+     */
+    public List<Integer> changedSince(long since, int limit) {
+        long upTo = completedUpTo.get();
+        if (upTo <= since) {
+            return List.of();
+        }
+        // Запись, изменённая во время обхода, может встретиться под старой и новой версией
+        return idsByVersion.subMap(since, false, upTo, true).values().stream()
+                .distinct()
+                .limit(limit)
+                .toList();
+    }
+
+    private long issue() {
+        return issue(1);
+    }
+
+    /**
+     * Выдаёт count версий подряд и ждёт, пока все они поместятся в кольцо завершённых.
+     * Поток ждёт только версий, выданных раньше его собственных, поэтому ожидания не зацикливаются.
+     *
+     * @return первая из выданных версий
+     */
+    private long issue(int count) {
+        long first = issued.getAndAdd(count) + 1;
+        while (first + count - 1 - completedUpTo.get() > MAX_IN_FLIGHT) {
+            Thread.yield();
+        }
+        return first;
+    }
+
+    /**
+     * Отмечает версию завершённой и сдвигает границу current() через все завершённые подряд.
+     * Версию, которую не сдвинул этот поток, сдвинет завершивший предыдущую.
+     */
+    private void complete(long version) {
+        completed.set(slot(version), version);
+        long upTo;
+        while (completed.get(slot((upTo = completedUpTo.get()) + 1)) == upTo + 1) {
+            completedUpTo.compareAndSet(upTo, upTo + 1);
+        }
+    }
+
+    private static int slot(long version) {
+        return (int) version & (MAX_IN_FLIGHT - 1);
+    }
+
+    @FunctionalInterface
+    public interface BatchWrite {
+        /**
+         * Публикует записи с позициями from..to-1; запись с позицией i получает версию
+         * firstVersion + i - from.
+         */
+        void apply(int from, int to, long firstVersion);
+    }
+
+    @FunctionalInterface
+    public interface Write {
+        /**
+         * @return версия, которую запись имела до изменения: 0 для новой записи,
+         * {@link #NOT_WRITTEN}, если изменение не выполнено
+         */
+        long apply(long version);
+    }
+}
@@ -0,0 +1,21 @@
+package ru.yandex.practicum.storage;
+
+import java.util.List;
+
+/**
+ * Журнал, в который хранилище записывает изменение до того, как оно станет видно в памяти.
+ * Вызывается под блокировкой записи, когда id и версии уже присвоены.
+ */
+@FunctionalInterface
+public interface WriteAhead<T> {
+
+    /**
+     * Сохраняет entities и только после этого выполняет apply, публикующий их в памяти.
+     * Исключение означает, что изменение не сохранено и apply не выполнялся.
+     */
+    void write(List<T> entities, Runnable apply);
+
+    static <T> WriteAhead<T> none() {
+        return (entities, apply) -> apply.run();
+    }
+}
@@ -0,0 +1,48 @@
+package ru.yandex.practicum.storage.film;
+
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.storage.ColumnarTable;
+
+import java.time.LocalDate;
+
+/**
+ * Фильмы по столбцам: дата выхода хранится номером дня от эпохи, продолжительность — int.
+ */
+class FilmColumns extends ColumnarTable<Film, FilmColumns.FilmPage> {
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    @Override
+    protected FilmPage newPage() {
+        return new FilmPage();
+    }
+
+    @Override
+    protected void write(FilmPage page, int slot, Film film) {
+        page.names[slot] = film.getName();
+        page.descriptions[slot] = film.getDescription();
+        page.releaseDays[slot] = film.getReleaseDate() == null ? NO_DATE
+                : Math.toIntExact(film.getReleaseDate().toEpochDay());
+        page.durations[slot] = film.getDuration();
+    }
+
+    @Override
+    protected Film read(FilmPage page, int slot, int id, long version) {
+        int releaseDay = page.releaseDays[slot];
+        Film film = new Film();
+        film.setId(id);
+        film.setVersion(version);
+        film.setName(page.names[slot]);
+        film.setDescription(page.descriptions[slot]);
+        film.setReleaseDate(releaseDay == NO_DATE ? null : LocalDate.ofEpochDay(releaseDay));
+        film.setDuration(page.durations[slot]);
+        return film;
+    }
+
+    static final class FilmPage extends ColumnarTable.Page {
+        final String[] names = new String[PAGE_SIZE];
+        final String[] descriptions = new String[PAGE_SIZE];
+        final int[] releaseDays = new int[PAGE_SIZE];
+        final int[] durations = new int[PAGE_SIZE];
+    }
+}
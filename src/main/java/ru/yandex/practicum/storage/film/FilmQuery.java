@@ -0,0 +1,39 @@
+package ru.yandex.practicum.storage.film;
+
+import ru.yandex.practicum.model.Film;
+
+import java.time.LocalDate;
+
+/**
+ * Выборка фильмов по диапазонам даты выхода и продолжительности. Границы включительные,
+ * null означает отсутствие границы. afterId — id последнего фильма предыдущей страницы
+ * в этом же порядке сортировки.
+ */
+public record FilmQuery(LocalDate releasedFrom, LocalDate releasedTo, Integer minDuration, Integer maxDuration,
+                        Sort sort, boolean descending, Integer afterId, int limit) {
+
+    public enum Sort {
+        ID,
+        RELEASE_DATE,
+        DURATION
+    }
+
+    public boolean hasReleaseDateRange() {
+        return releasedFrom != null || releasedTo != null;
+    }
+
+    public boolean hasDurationRange() {
+        return minDuration != null || maxDuration != null;
+    }
+
+    public boolean matches(Film film) {
+        LocalDate releaseDate = film.getReleaseDate();
+        if (hasReleaseDateRange() && releaseDate == null) {
+            return false;
+        }
+        return (releasedFrom == null || !releaseDate.isBefore(releasedFrom))
+                && (releasedTo == null || !releaseDate.isAfter(releasedTo))
+                && (minDuration == null || film.getDuration() >= minDuration)
+                && (maxDuration == null || film.getDuration() <= maxDuration);
+    }
+}
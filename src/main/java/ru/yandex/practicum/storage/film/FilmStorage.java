@@ -0,0 +1,62 @@
+package ru.yandex.practicum.storage.film;
+
+import ru.yandex.practicum.exception.BadRequestException;
+import ru.yandex.practicum.exception.VersionConflictException;
+import ru.yandex.practicum.model.Film;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface FilmStorage {
+
+    long ANY_VERSION = 0;
+
+    Film add(Film film);
+
+    default void addAll(List<Film> films) {
+        films.forEach(this::add);
+    }
+
+    /**
+     * Обновляет запись, если её текущая версия равна expectedVersion; {@link #ANY_VERSION} — без проверки.
+     *
+     * @throws VersionConflictException если запись уже изменили
+     */
+    Optional<Film> update(Film film, long expectedVersion);
+
+    default Optional<Film> update(Film film) {
+        return update(film, ANY_VERSION);
+    }
+
+    /**
+     * Сохраняет фильм с уже назначенным id, заменяя прежнюю версию.
+     * Используется при восстановлении данных после перезапуска.
+     */
+    void restore(Film film);
+
+    Optional<Film> findById(int id);
+
+    List<Film> getAll();
+
+    List<Film> getPage(int afterId, int limit);
+
+    Stream<Film> streamFrom(int afterId);
+
+    /**
+     * @throws BadRequestException если фильма afterId нет, а порядок не по id
+     */
+    List<Film> find(FilmQuery query);
+
+    int size();
+
+    /**
+     * Текущая версия коллекции: номер последнего изменения.
+     */
+    long version();
+
+    /**
+     * Записи, изменённые после версии since, в порядке изменения.
+     */
+    List<Film> getChangedSince(long since, int limit);
+}
@@ -0,0 +1,341 @@
+package ru.yandex.practicum.storage.film;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.exception.BadRequestException;
+import ru.yandex.practicum.exception.VersionConflictException;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.storage.EntityTable;
+import ru.yandex.practicum.storage.IdRange;
+import ru.yandex.practicum.storage.SkipListTable;
+import ru.yandex.practicum.storage.StorageLayout;
+import ru.yandex.practicum.storage.VersionIndex;
+import ru.yandex.practicum.storage.WriteAhead;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+public class InMemoryFilmStorage implements FilmStorage {
+
+    private final EntityTable<Film> films;
+    private final IdRange idRange;
+    private final AtomicInteger counter;
+    private final VersionIndex versions = new VersionIndex();
+    // Вторичные индексы: ключ — значение поля в старших 32 битах и id в младших,
+    // поэтому ключи упорядочены по значению, а при равенстве — по id
+    private final ConcurrentSkipListSet<Long> byReleaseDate = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<Long> byDuration = new ConcurrentSkipListSet<>();
+    private volatile WriteAhead<Film> writeAhead = WriteAhead.none();
+
+    public InMemoryFilmStorage() {
+        this(StorageLayout.OBJECTS);
+    }
+
+    public InMemoryFilmStorage(StorageLayout layout) {
+        this(layout, IdRange.ALL);
+    }
+
+    @Autowired
+    public InMemoryFilmStorage(@Value("${filmorate.storage.layout:objects}") StorageLayout layout, IdRange idRange) {
+        films = layout == StorageLayout.COLUMNAR ? new FilmColumns() : new SkipListTable<>();
+        this.idRange = idRange;
+        counter = new AtomicInteger(idRange.first() - 1);
+    }
+
+    /**
+     * Журнал, в который изменения записываются до публикации; устанавливается до первого изменения.
+     */
+    public void setWriteAhead(WriteAhead<Film> writeAhead) {
+        this.writeAhead = writeAhead;
+    }
+
+    @Override
+    public Film add(Film film) {
+        film.setId(nextId());
+        versions.publish(film.getId(), version -> {
+            film.setVersion(version);
+            writeAhead.write(List.of(film), () -> {
+                films.put(film);
+                reindex(null, film);
+            });
+            return 0;
+        });
+        return film;
+    }
+
+    /**
+     * Фильмы пачки получают версии подряд и записываются в журнал вместе.
+     */
+    @Override
+    public void addAll(List<Film> added) {
+        int[] ids = new int[added.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = nextId();
+            added.get(i).setId(ids[i]);
+        }
+        versions.publishAll(ids, (from, to, firstVersion) -> {
+            List<Film> part = added.subList(from, to);
+            for (int i = 0; i < part.size(); i++) {
+                part.get(i).setVersion(firstVersion + i);
+            }
+            writeAhead.write(part, () -> part.forEach(film -> {
+                films.put(film);
+                reindex(null, film);
+            }));
+        });
+    }
+
+    @Override
+    public Optional<Film> update(Film film, long expectedVersion) {
+        boolean updated = versions.publish(film.getId(), () -> {
+            Film current = films.get(film.getId());
+            if (current == null) {
+                return false;
+            }
+            if (expectedVersion != ANY_VERSION && current.getVersion() != expectedVersion) {
+                throw new VersionConflictException("Фильм с id " + film.getId() + " уже изменён: версия "
+                        + current.getVersion() + ", ожидалась " + expectedVersion);
+            }
+            return true;
+        }, version -> {
+            Film current = films.get(film.getId());
+            film.setVersion(version);
+            writeAhead.write(List.of(film), () -> {
+                films.put(film);
+                reindex(current, film);
+            });
+            return current.getVersion();
+        });
+        return updated ? Optional.of(film) : Optional.empty();
+    }
+
+    @Override
+    public void restore(Film film) {
+        Film current = films.get(film.getId());
+        if (current != null && film.getVersion() > 0 && current.getVersion() > film.getVersion()) {
+            // Запись журнала старше уже восстановленной версии
+            return;
+        }
+        film.setVersion(versions.restore(film.getId(), current == null ? 0 : current.getVersion(), film.getVersion()));
+        films.put(film);
+        reindex(current, film);
+        counter.accumulateAndGet(film.getId(), Math::max);
+    }
+
+    @Override
+    public Optional<Film> findById(int id) {
+        return Optional.ofNullable(films.get(id));
+    }
+
+    @Override
+    public List<Film> getAll() {
+        return films.ascendingAfter(0).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Override
+    public List<Film> getPage(int afterId, int limit) {
+        return streamFrom(afterId).limit(limit).toList();
+    }
+
+    @Override
+    public Stream<Film> streamFrom(int afterId) {
+        return films.ascendingAfter(afterId);
+    }
+
+    /**
+     * Фильмы перебираются по индексу поля сортировки, поэтому стоимость запроса зависит от страницы
+     * и диапазона, а не от числа всех фильмов. Про сортировку по id с диапазоном — {@link #findInIdOrder}.
+     */
+    @Override
+    public List<Film> find(FilmQuery query) {
+        FilmQuery.Sort driver = query.sort();
+        if (driver == FilmQuery.Sort.ID) {
+            driver = query.hasReleaseDateRange() ? FilmQuery.Sort.RELEASE_DATE
+                    : query.hasDurationRange() ? FilmQuery.Sort.DURATION
+                    : FilmQuery.Sort.ID;
+        }
+        if (driver == FilmQuery.Sort.ID) {
+            Stream<Film> view = query.descending()
+                    ? films.descendingBefore(query.afterId() == null ? Integer.MAX_VALUE : query.afterId())
+                    : films.ascendingAfter(query.afterId() == null ? 0 : query.afterId());
+            return view.limit(query.limit()).toList();
+        }
+        NavigableSet<Long> range = range(driver, query);
+        if (query.sort() == FilmQuery.Sort.ID) {
+            return findInIdOrder(range, driver, query);
+        }
+        if (query.descending()) {
+            range = range.descendingSet();
+        }
+        if (query.afterId() != null) {
+            // Позиция в порядке по дате или продолжительности известна только по самому фильму
+            Film after = films.get(query.afterId());
+            if (after == null) {
+                throw new BadRequestException("Фильма с id " + query.afterId()
+                        + " из параметра after нет: начните выборку с первой страницы");
+            }
+            range = range.tailSet(key(sortValue(after, driver), after.getId()), false);
+        }
+        return collect(range, driver, query, query.limit());
+    }
+
+    @Override
+    public int size() {
+        return films.size();
+    }
+
+    private NavigableSet<Long> range(FilmQuery.Sort driver, FilmQuery query) {
+        int from;
+        int to;
+        if (driver == FilmQuery.Sort.RELEASE_DATE) {
+            from = query.releasedFrom() == null ? Integer.MIN_VALUE : epochDay(query.releasedFrom());
+            to = query.releasedTo() == null ? Integer.MAX_VALUE : epochDay(query.releasedTo());
+        } else {
+            from = query.minDuration() == null ? Integer.MIN_VALUE : query.minDuration();
+            to = query.maxDuration() == null ? Integer.MAX_VALUE : query.maxDuration();
+        }
+        if (from > to) {
+            return Collections.emptyNavigableSet();
+        }
+        NavigableSet<Long> index = driver == FilmQuery.Sort.RELEASE_DATE ? byReleaseDate : byDuration;
+        return index.subSet(key(from, 0), true, key(to, -1), true);
+    }
+
+    /**
+     * Страница по id с диапазоном даты или продолжительности. Её можно собрать двумя путями:
+     * идти по id и фильтровать — выгодно, когда под диапазон попадает много фильмов, — или
+     * перебрать диапазон по индексу, оставляя limit лучших по id, — выгодно, когда диапазон узкий.
+     * Какой путь короче, заранее не известно, поэтому они идут по шагу поочерёдно, и ответ даёт
+     * тот, что закончится первым: стоимость — не больше двух кратчайших, а не сортировка всего диапазона.
+     */
+    private List<Film> findInIdOrder(NavigableSet<Long> range, FilmQuery.Sort driver, FilmQuery query) {
+        int limit = query.limit();
+        if (limit <= 0) {
+            return List.of();
+        }
+        Integer afterId = query.afterId();
+        boolean descending = query.descending();
+        Iterator<Film> byId = (descending
+                ? films.descendingBefore(afterId == null ? Integer.MAX_VALUE : afterId)
+                : films.ascendingAfter(afterId == null ? 0 : afterId)).iterator();
+        Iterator<Long> byRange = range.iterator();
+        Comparator<Film> order = descending
+                ? Comparator.comparingInt(Film::getId).reversed()
+                : Comparator.comparingInt(Film::getId);
+        List<Film> page = new ArrayList<>(Math.min(limit, 1024));
+        // Лучшие по id фильмы диапазона; в вершине — худший из них, он вытесняется первым
+        PriorityQueue<Film> best = new PriorityQueue<>(order.reversed());
+        while (true) {
+            if (!byId.hasNext()) {
+                return page;
+            }
+            Film next = byId.next();
+            if (query.matches(next) && page.add(next) && page.size() == limit) {
+                return page;
+            }
+            if (!byRange.hasNext()) {
+                List<Film> result = new ArrayList<>(best);
+                result.sort(order);
+                return result;
+            }
+            long key = byRange.next();
+            Film film = films.get((int) key);
+            if (film != null && sortValue(film, driver) == (int) (key >> 32) && query.matches(film)
+                    && (afterId == null || (descending ? film.getId() < afterId : film.getId() > afterId))) {
+                if (best.size() < limit) {
+                    best.add(film);
+                } else if (order.compare(film, best.peek()) < 0) {
+                    best.poll();
+                    best.add(film);
+                }
+            }
+        }
+    }
+
+    private List<Film> collect(NavigableSet<Long> keys, FilmQuery.Sort driver, FilmQuery query, int limit) {
+        List<Film> result = new ArrayList<>();
+        for (Iterator<Long> iterator = keys.iterator(); iterator.hasNext() && result.size() < limit; ) {
+            long key = iterator.next();
+            Film film = films.get((int) key);
+            // Во время обновления фильм ненадолго есть в индексе и под старым, и под новым значением
+            if (film != null && sortValue(film, driver) == (int) (key >> 32) && query.matches(film)) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Новые ключи добавляются раньше, чем удаляются старые, поэтому фильм не пропадает из выборок.
+     */
+    private void reindex(Film previous, Film film) {
+        reindex(byReleaseDate, previous, film, FilmQuery.Sort.RELEASE_DATE);
+        reindex(byDuration, previous, film, FilmQuery.Sort.DURATION);
+    }
+
+    private static void reindex(ConcurrentSkipListSet<Long> index, Film previous, Film film, FilmQuery.Sort field) {
+        long key = key(sortValue(film, field), film.getId());
+        index.add(key);
+        if (previous != null) {
+            long previousKey = key(sortValue(previous, field), previous.getId());
+            if (previousKey != key) {
+                index.remove(previousKey);
+            }
+        }
+    }
+
+    private static int sortValue(Film film, FilmQuery.Sort field) {
+        if (field == FilmQuery.Sort.DURATION) {
+            return film.getDuration();
+        }
+        // Фильмы без даты выхода в индексе стоят раньше всех остальных
+        return film.getReleaseDate() == null ? Integer.MIN_VALUE : epochDay(film.getReleaseDate());
+    }
+
+    private static int epochDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    private static long key(int value, int id) {
+        return ((long) value << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    @Override
+    public long version() {
+        return versions.current();
+    }
+
+    @Override
+    public List<Film> getChangedSince(long since, int limit) {
+        List<Film> changed = new ArrayList<>();
+        for (int id : versions.changedSince(since, limit)) {
+            Film film = films.get(id);
+            if (film != null && film.getVersion() > since) {
+                changed.add(film);
+            }
+        }
+        return changed;
+    }
+
+    private int nextId() {
+        int id = counter.incrementAndGet();
+        if (id < idRange.first() || id > idRange.last()) {
+            throw new IllegalStateException("Свободных id в диапазоне " + idRange.first() + ".." + idRange.last()
+                    + " не осталось");
+        }
+        return id;
+    }
+}
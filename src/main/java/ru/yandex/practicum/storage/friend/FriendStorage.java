@@ -0,0 +1,16 @@
+package ru.yandex.practicum.storage.friend;
+
+/**
+ * Дружба взаимна: добавление и удаление меняют списки обоих пользователей.
+ * Списки друзей возвращаются отсортированными по id.
+ */
+public interface FriendStorage {
+
+    void addFriend(int userId, int friendId);
+
+    void removeFriend(int userId, int friendId);
+
+    int[] getFriendIds(int userId);
+
+    int[] getCommonFriendIds(int userId, int otherId);
+}
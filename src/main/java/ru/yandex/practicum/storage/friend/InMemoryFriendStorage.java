@@ -0,0 +1,57 @@
+package ru.yandex.practicum.storage.friend;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.storage.SortedIntArrays;
+import ru.yandex.practicum.storage.StripedLocks;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Список друзей каждого пользователя — отсортированный массив int без упаковки в Integer.
+ * Массивы не меняются после публикации: изменение создаёт новую копию внутри
+ * {@link ConcurrentHashMap#compute}, поэтому чтение обходится без блокировок.
+ * Изменение пары держит блокировки обоих id, чтобы встречные добавление и удаление
+ * не оставили дружбу только в одном из списков.
+ */
+@Component
+public class InMemoryFriendStorage implements FriendStorage {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final ConcurrentHashMap<Integer, int[]> friends = new ConcurrentHashMap<>();
+    private final StripedLocks locks = new StripedLocks(LOCK_STRIPES);
+
+    @Override
+    public void addFriend(int userId, int friendId) {
+        locks.lock(userId, friendId);
+        try {
+            friends.compute(userId, (id, ids) -> SortedIntArrays.insert(ids, friendId));
+            friends.compute(friendId, (id, ids) -> SortedIntArrays.insert(ids, userId));
+        } finally {
+            locks.unlock(userId, friendId);
+        }
+    }
+
+    @Override
+    public void removeFriend(int userId, int friendId) {
+        locks.lock(userId, friendId);
+        try {
+            friends.computeIfPresent(userId, (id, ids) -> SortedIntArrays.delete(ids, friendId));
+            friends.computeIfPresent(friendId, (id, ids) -> SortedIntArrays.delete(ids, userId));
+        } finally {
+            locks.unlock(userId, friendId);
+        }
+    }
+
+    @Override
+    public int[] getFriendIds(int userId) {
+        return friends.getOrDefault(userId, SortedIntArrays.EMPTY).clone();
+    }
+
+    @Override
+    public int[] getCommonFriendIds(int userId, int otherId) {
+        int[] first = friends.getOrDefault(userId, SortedIntArrays.EMPTY);
+        int[] second = friends.getOrDefault(otherId, SortedIntArrays.EMPTY);
+        return SortedIntArrays.intersect(first, second);
+    }
+}
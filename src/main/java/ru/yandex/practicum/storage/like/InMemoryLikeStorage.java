@@ -0,0 +1,200 @@
+package ru.yandex.practicum.storage.like;
+
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.storage.SortedIntArrays;
+import ru.yandex.practicum.storage.StripedLocks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class InMemoryLikeStorage implements LikeStorage {
+
+    private final ConcurrentHashMap<Integer, Set<Integer>> likes = new ConcurrentHashMap<>();
+    // Рейтинг фильмов: ключ кодирует (число лайков по убыванию, id по возрастанию),
+    // поэтому первые N элементов набора и есть топ-N без сортировки всего каталога.
+    private final ConcurrentSkipListSet<Long> ranking = new ConcurrentSkipListSet<>();
+    // Лайки каждого пользователя — отсортированный массив id фильмов, как списки друзей в InMemoryFriendStorage
+    private final ConcurrentHashMap<Integer, int[]> likedFilms = new ConcurrentHashMap<>();
+    private final StripedLocks locks = new StripedLocks(64);
+
+    @Override
+    public boolean addLike(int filmId, int userId) {
+        ReentrantLock lock = locks.forId(filmId);
+        lock.lock();
+        try {
+            Set<Integer> filmLikes = likes.computeIfAbsent(filmId, id -> ConcurrentHashMap.newKeySet());
+            if (!filmLikes.add(userId)) {
+                return false;
+            }
+            likedFilms.compute(userId, (id, ids) -> SortedIntArrays.insert(ids, filmId));
+            rerank(filmId, filmLikes.size() - 1, filmLikes.size());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeLike(int filmId, int userId) {
+        ReentrantLock lock = locks.forId(filmId);
+        lock.lock();
+        try {
+            Set<Integer> filmLikes = likes.get(filmId);
+            if (filmLikes == null || !filmLikes.remove(userId)) {
+                return false;
+            }
+            likedFilms.computeIfPresent(userId, (id, ids) -> SortedIntArrays.delete(ids, filmId));
+            rerank(filmId, filmLikes.size() + 1, filmLikes.size());
+            if (filmLikes.isEmpty()) {
+                likes.remove(filmId);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int countLikes(int filmId) {
+        Set<Integer> filmLikes = likes.get(filmId);
+        return filmLikes == null ? 0 : filmLikes.size();
+    }
+
+    @Override
+    public List<Integer> getMostLiked(int count) {
+        List<Integer> result = new ArrayList<>(count);
+        // Во время перестановки фильм на мгновение может оказаться в рейтинге дважды
+        Set<Integer> seen = new HashSet<>();
+        Iterator<Long> iterator = ranking.iterator();
+        while (result.size() < count && iterator.hasNext()) {
+            int filmId = filmId(iterator.next());
+            if (seen.add(filmId)) {
+                result.add(filmId);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int[] getLikedFilmIds(int userId) {
+        return likedFilms.getOrDefault(userId, SortedIntArrays.EMPTY).clone();
+    }
+
+    /**
+     * Вместо обхода всех пользователей общие лайки считаются по спискам лайкнувших фильмы самого
+     * пользователя, поэтому время зависит от популярности этих фильмов, а не от числа пользователей.
+     */
+    @Override
+    public int[] getSimilarUsers(int userId, int count) {
+        int[] liked = likedFilms.get(userId);
+        if (liked == null || count <= 0) {
+            return SortedIntArrays.EMPTY;
+        }
+        CommonLikes common = new CommonLikes();
+        for (int filmId : liked) {
+            Set<Integer> filmLikes = likes.get(filmId);
+            if (filmLikes != null) {
+                for (Integer otherId : filmLikes) {
+                    if (otherId != userId) {
+                        common.increment(otherId);
+                    }
+                }
+            }
+        }
+        long[] ranked = common.rankKeys();
+        Arrays.sort(ranked);
+        int[] users = new int[Math.min(count, ranked.length)];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = (int) ranked[i];
+        }
+        return users;
+    }
+
+    private void rerank(int filmId, int oldCount, int newCount) {
+        if (newCount > 0) {
+            ranking.add(rankKey(filmId, newCount));
+        }
+        if (oldCount > 0) {
+            ranking.remove(rankKey(filmId, oldCount));
+        }
+    }
+
+    /**
+     * Ключ упорядочивает по убыванию счётчика, при равенстве — по возрастанию id.
+     */
+    private static long rankKey(int id, int count) {
+        return ((long) (Integer.MAX_VALUE - count) << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    private static int filmId(long rankKey) {
+        return (int) rankKey;
+    }
+
+    /**
+     * Счётчик общих лайков по id пользователя с открытой адресацией: без упаковки id и счётчиков в Integer.
+     * Id пользователей положительны, поэтому 0 отмечает свободную ячейку.
+     */
+    private static final class CommonLikes {
+        private int[] ids = new int[64];
+        private int[] counts = new int[64];
+        private int size;
+
+        void increment(int id) {
+            int mask = ids.length - 1;
+            int slot = mix(id) & mask;
+            while (ids[slot] != 0 && ids[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            if (ids[slot] == 0) {
+                ids[slot] = id;
+                size++;
+            }
+            counts[slot]++;
+            if (size * 2 > ids.length) {
+                grow();
+            }
+        }
+
+        long[] rankKeys() {
+            long[] keys = new long[size];
+            int next = 0;
+            for (int slot = 0; slot < ids.length; slot++) {
+                if (ids[slot] != 0) {
+                    keys[next++] = rankKey(ids[slot], counts[slot]);
+                }
+            }
+            return keys;
+        }
+
+        private void grow() {
+            int[] oldIds = ids;
+            int[] oldCounts = counts;
+            ids = new int[oldIds.length * 2];
+            counts = new int[oldIds.length * 2];
+            int mask = ids.length - 1;
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldIds[i] != 0) {
+                    int slot = mix(oldIds[i]) & mask;
+                    while (ids[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    ids[slot] = oldIds[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private static int mix(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
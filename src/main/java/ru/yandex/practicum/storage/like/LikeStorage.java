@@ -0,0 +1,34 @@
+package ru.yandex.practicum.storage.like;
+
+import java.util.List;
+
+public interface LikeStorage {
+
+    /**
+     * @return false, если пользователь уже ставил лайк этому фильму
+     */
+    boolean addLike(int filmId, int userId);
+
+    /**
+     * @return false, если лайка не было
+     */
+    boolean removeLike(int filmId, int userId);
+
+    int countLikes(int filmId);
+
+    /**
+     * Id фильмов, у которых есть хотя бы один лайк, по убыванию числа лайков (при равенстве — по id).
+     */
+    List<Integer> getMostLiked(int count);
+
+    /**
+     * Id фильмов, которым пользователь поставил лайк, по возрастанию.
+     */
+    int[] getLikedFilmIds(int userId);
+
+    /**
+     * Id пользователей, у которых больше всего общих с userId лайков, по убыванию их числа
+     * (при равенстве — по id). Пользователи без общих лайков не возвращаются.
+     */
+    int[] getSimilarUsers(int userId, int count);
+}
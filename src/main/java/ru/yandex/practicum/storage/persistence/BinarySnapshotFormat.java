@@ -0,0 +1,276 @@
+package ru.yandex.practicum.storage.persistence;
+
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Двоичный снимок, который при восстановлении читается через отображение файла в память.
+ *
+ * <pre>
+ * заголовок, 32 байта:     magic, версия, число фильмов, число пользователей, смещение пула строк (long)
+ * фильм, 28 байт:          id, version (long), releaseDate (epoch day), duration, name, description
+ * пользователь, 28 байт:   id, version (long), birthday (epoch day), email, login, name
+ * пул строк:               число строк N, N + 1 смещений от начала байтов, байты UTF-8
+ * </pre>
+ * Строковые поля хранятся как номера в пуле, одинаковые значения записываются один раз.
+ * Номер -1 означает null, отсутствующая дата хранится как {@link Integer#MIN_VALUE}.
+ * Снимки версии формата 1 (записи по 20 байт, без поля version) по-прежнему читаются.
+ * Размер файла ограничен 2 ГБ — пределом одного {@link MappedByteBuffer}: снимок, который
+ * в него не помещается, не записывается, и запись завершается {@link TooLargeException}.
+ */
+public class BinarySnapshotFormat implements SnapshotFormat {
+
+    public static final long MAX_FILE_SIZE = Integer.MAX_VALUE;
+
+    private static final int MAGIC = 0x464D5253;
+    private static final int VERSION = 2;
+    private static final int LEGACY_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int FILM_RECORD_SIZE = 28;
+    private static final int USER_RECORD_SIZE = 28;
+    private static final int NULL_REF = -1;
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+
+    private final long maxFileSize;
+
+    public BinarySnapshotFormat() {
+        this(MAX_FILE_SIZE);
+    }
+
+    /**
+     * @param maxFileSize предел размера файла не больше {@link #MAX_FILE_SIZE}; меньший позволяет
+     *                    проверить поведение у предела без файла в 2 ГБ
+     */
+    public BinarySnapshotFormat(long maxFileSize) {
+        this.maxFileSize = Math.min(maxFileSize, MAX_FILE_SIZE);
+    }
+
+    @Override
+    public String extension() {
+        return "bin";
+    }
+
+    @Override
+    public void write(Path file, Stream<Film> films, Stream<User> users) throws IOException {
+        StringPool pool = new StringPool(maxFileSize);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.write(new byte[HEADER_SIZE]);
+
+            int filmCount = 0;
+            for (Iterator<Film> iterator = films.iterator(); iterator.hasNext(); filmCount++) {
+                Film film = iterator.next();
+                out.writeInt(film.getId());
+                out.writeLong(film.getVersion());
+                out.writeInt(toEpochDay(film.getReleaseDate()));
+                out.writeInt(film.getDuration());
+                out.writeInt(pool.ref(film.getName()));
+                out.writeInt(pool.ref(film.getDescription()));
+                checkSize(HEADER_SIZE + (long) (filmCount + 1) * FILM_RECORD_SIZE);
+            }
+            int userCount = 0;
+            for (Iterator<User> iterator = users.iterator(); iterator.hasNext(); userCount++) {
+                User user = iterator.next();
+                out.writeInt(user.getId());
+                out.writeLong(user.getVersion());
+                out.writeInt(toEpochDay(user.getBirthday()));
+                out.writeInt(pool.ref(user.getEmail()));
+                out.writeInt(pool.ref(user.getLogin()));
+                out.writeInt(pool.ref(user.getName()));
+                checkSize(HEADER_SIZE + (long) filmCount * FILM_RECORD_SIZE
+                        + (long) (userCount + 1) * USER_RECORD_SIZE);
+            }
+            long poolOffset = HEADER_SIZE + (long) filmCount * FILM_RECORD_SIZE + (long) userCount * USER_RECORD_SIZE;
+            checkSize(poolOffset + pool.size());
+            pool.writeTo(out);
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(filmCount)
+                    .putInt(userCount)
+                    .putLong(poolOffset)
+                    .rewind();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public void read(Path file, Consumer<Film> films, Consumer<User> users) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Снимок " + file + " больше 2 ГБ");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int formatVersion = buffer.getInt(4);
+        if (buffer.getInt(0) != MAGIC || formatVersion != VERSION && formatVersion != LEGACY_VERSION) {
+            throw new IOException("Неизвестный формат снимка " + file);
+        }
+        // В формате 1 нет поля version: остальные поля сдвинуты на 8 байт к началу записи
+        int versionSize = formatVersion == VERSION ? Long.BYTES : 0;
+        int filmCount = buffer.getInt(8);
+        int userCount = buffer.getInt(12);
+        StringTable strings = new StringTable(buffer, (int) buffer.getLong(16));
+
+        int position = HEADER_SIZE;
+        int filmRecordSize = FILM_RECORD_SIZE - Long.BYTES + versionSize;
+        for (int i = 0; i < filmCount; i++, position += filmRecordSize) {
+            int fields = position + 4 + versionSize;
+            Film film = new Film();
+            film.setId(buffer.getInt(position));
+            film.setVersion(versionSize == 0 ? 0 : buffer.getLong(position + 4));
+            film.setReleaseDate(fromEpochDay(buffer.getInt(fields)));
+            film.setDuration(buffer.getInt(fields + 4));
+            film.setName(strings.get(buffer.getInt(fields + 8)));
+            film.setDescription(strings.get(buffer.getInt(fields + 12)));
+            films.accept(film);
+        }
+        int userRecordSize = USER_RECORD_SIZE - Long.BYTES + versionSize;
+        for (int i = 0; i < userCount; i++, position += userRecordSize) {
+            int fields = position + 4 + versionSize;
+            User user = new User();
+            user.setId(buffer.getInt(position));
+            user.setVersion(versionSize == 0 ? 0 : buffer.getLong(position + 4));
+            user.setBirthday(fromEpochDay(buffer.getInt(fields)));
+            user.setEmail(strings.get(buffer.getInt(fields + 4)));
+            user.setLogin(strings.get(buffer.getInt(fields + 8)));
+            user.setName(strings.get(buffer.getInt(fields + 12)));
+            users.accept(user);
+        }
+    }
+
+    private void checkSize(long size) throws TooLargeException {
+        if (size > maxFileSize) {
+            throw new TooLargeException(maxFileSize);
+        }
+    }
+
+    private static int toEpochDay(LocalDate date) {
+        return date == null ? NULL_DATE : Math.toIntExact(date.toEpochDay());
+    }
+
+    private static LocalDate fromEpochDay(int epochDay) {
+        return epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static final class StringPool {
+        private final Map<String, Integer> refs = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final long maxSize;
+        private int[] offsets = new int[1024];
+
+        StringPool(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        int ref(String value) throws TooLargeException {
+            if (value == null) {
+                return NULL_REF;
+            }
+            Integer ref = refs.get(value);
+            if (ref == null) {
+                ref = refs.size();
+                refs.put(value, ref);
+                if (ref == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                }
+                offsets[ref] = bytes.size();
+                byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                // Смещения в пуле — int, и сам буфер не вырастет больше 2 ГБ
+                if (size() + encoded.length > maxSize) {
+                    throw new TooLargeException(maxSize);
+                }
+                bytes.writeBytes(encoded);
+            }
+            return ref;
+        }
+
+        /**
+         * Размер пула в файле: число строк, N + 1 смещений и байты.
+         */
+        long size() {
+            return Integer.BYTES + (refs.size() + 1L) * Integer.BYTES + bytes.size();
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            int count = refs.size();
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeInt(offsets[i]);
+            }
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+        }
+    }
+
+    /**
+     * Декодирует строки пула по требованию; повторные обращения к одному номеру
+     * возвращают тот же экземпляр строки.
+     */
+    private static final class StringTable {
+        private final MappedByteBuffer buffer;
+        private final int offsetsStart;
+        private final int dataStart;
+        private final String[] decoded;
+
+        StringTable(MappedByteBuffer buffer, int poolOffset) {
+            this.buffer = buffer;
+            int count = buffer.getInt(poolOffset);
+            offsetsStart = poolOffset + Integer.BYTES;
+            dataStart = offsetsStart + (count + 1) * Integer.BYTES;
+            decoded = new String[count];
+        }
+
+        String get(int ref) {
+            if (ref == NULL_REF) {
+                return null;
+            }
+            String value = decoded[ref];
+            if (value == null) {
+                int start = buffer.getInt(offsetsStart + ref * Integer.BYTES);
+                int end = buffer.getInt(offsetsStart + (ref + 1) * Integer.BYTES);
+                byte[] bytes = new byte[end - start];
+                buffer.get(dataStart + start, bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+                decoded[ref] = value;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Данные не помещаются в двоичный снимок. Файл записан не полностью, и его нельзя использовать.
+     */
+    public static class TooLargeException extends IOException {
+        public TooLargeException(long maxFileSize) {
+            super("Двоичный снимок превысил бы " + maxFileSize + " байт");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package ru.yandex.practicum.storage.persistence;
+
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.storage.film.FilmQuery;
+import ru.yandex.practicum.storage.film.FilmStorage;
+import ru.yandex.practicum.storage.film.InMemoryFilmStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище фильмов, которое подтверждает изменение только после его записи в журнал.
+ * Изменение записывается в журнал под блокировкой записи хранилища и становится видно в памяти
+ * только после fsync: порядок записей одного id в журнале совпадает с порядком версий, а неудачная
+ * запись в журнал не оставляет следов в памяти.
+ */
+public class DurableFilmStorage implements FilmStorage {
+
+    private final FilmStorage delegate;
+
+    public DurableFilmStorage(InMemoryFilmStorage delegate, PersistenceManager persistence) {
+        this.delegate = delegate;
+        delegate.setWriteAhead(persistence::journalFilms);
+    }
+
+    @Override
+    public Film add(Film film) {
+        return delegate.add(film);
+    }
+
+    @Override
+    public void addAll(List<Film> films) {
+        delegate.addAll(films);
+    }
+
+    @Override
+    public Optional<Film> update(Film film, long expectedVersion) {
+        return delegate.update(film, expectedVersion);
+    }
+
+    @Override
+    public void restore(Film film) {
+        delegate.restore(film);
+    }
+
+    @Override
+    public Optional<Film> findById(int id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Film> getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public List<Film> getPage(int afterId, int limit) {
+        return delegate.getPage(afterId, limit);
+    }
+
+    @Override
+    public Stream<Film> streamFrom(int afterId) {
+        return delegate.streamFrom(afterId);
+    }
+
+    @Override
+    public List<Film> find(FilmQuery query) {
+        return delegate.find(query);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long version() {
+        return delegate.version();
+    }
+
+    @Override
+    public List<Film> getChangedSince(long since, int limit) {
+        return delegate.getChangedSince(since, limit);
+    }
+}
@@ -0,0 +1,90 @@
+package ru.yandex.practicum.storage.persistence;
+
+import ru.yandex.practicum.exception.ConflictException;
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.storage.user.UserStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Хранилище пользователей, которое подтверждает изменение только после его записи в журнал.
+ * Как и в {@link DurableFilmStorage}, изменение становится видно в памяти только после fsync.
+ */
+public class DurableUserStorage implements UserStorage {
+
+    private final UserStorage delegate;
+
+    public DurableUserStorage(InMemoryUserStorage delegate, PersistenceManager persistence) {
+        this.delegate = delegate;
+        delegate.setWriteAhead(persistence::journalUsers);
+    }
+
+    @Override
+    public User add(User user) {
+        return delegate.add(user);
+    }
+
+    @Override
+    public void addAll(List<User> users, BiConsumer<Integer, ConflictException> onConflict) {
+        delegate.addAll(users, onConflict);
+    }
+
+    @Override
+    public Optional<User> update(User user, long expectedVersion) {
+        return delegate.update(user, expectedVersion);
+    }
+
+    @Override
+    public void restore(User user) {
+        delegate.restore(user);
+    }
+
+    @Override
+    public Optional<User> findById(int id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public boolean isLoginTaken(String login) {
+        return delegate.isLoginTaken(login);
+    }
+
+    @Override
+    public boolean isEmailTaken(String email) {
+        return delegate.isEmailTaken(email);
+    }
+
+    @Override
+    public List<User> getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public List<User> getPage(int afterId, int limit) {
+        return delegate.getPage(afterId, limit);
+    }
+
+    @Override
+    public Stream<User> streamFrom(int afterId) {
+        return delegate.streamFrom(afterId);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long version() {
+        return delegate.version();
+    }
+
+    @Override
+    public List<User> getChangedSince(long since, int limit) {
+        return delegate.getChangedSince(since, limit);
+    }
+}
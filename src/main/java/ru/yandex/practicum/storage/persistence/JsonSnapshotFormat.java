@@ -0,0 +1,72 @@
+package ru.yandex.practicum.storage.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Снимок в виде строк {@link WalRecord}, по одной сущности на строку.
+ */
+public class JsonSnapshotFormat implements SnapshotFormat {
+
+    private final ObjectMapper objectMapper;
+
+    public JsonSnapshotFormat(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String extension() {
+        return "json";
+    }
+
+    @Override
+    public void write(Path file, Stream<Film> films, Stream<User> users) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)) {
+            writeRecords(out, films.map(WalRecord::of).iterator());
+            writeRecords(out, users.map(WalRecord::of).iterator());
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public void read(Path file, Consumer<Film> films, Consumer<User> users) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                WalRecord record = objectMapper.readValue(line, WalRecord.class);
+                switch (record.kind()) {
+                    case FILM -> films.accept(record.film());
+                    case USER -> users.accept(record.user());
+                }
+            }
+        }
+    }
+
+    private void writeRecords(OutputStream out, Iterator<WalRecord> records) throws IOException {
+        while (records.hasNext()) {
+            out.write(objectMapper.writeValueAsBytes(records.next()));
+            out.write('\n');
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ru.yandex.practicum.storage.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import ru.yandex.practicum.storage.film.FilmStorage;
+import ru.yandex.practicum.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.storage.user.UserStorage;
+
+@Configuration
+@EnableConfigurationProperties(PersistenceProperties.class)
+@ConditionalOnProperty(prefix = "filmorate.persistence", name = "enabled", havingValue = "true")
+public class PersistenceConfig {
+
+    @Bean
+    public PersistenceManager persistenceManager(InMemoryFilmStorage filmStorage, InMemoryUserStorage userStorage,
+                                                 ObjectMapper objectMapper, PersistenceProperties properties) {
+        return new PersistenceManager(filmStorage, userStorage, objectMapper, properties);
+    }
+
+    @Bean
+    @Primary
+    public FilmStorage durableFilmStorage(InMemoryFilmStorage filmStorage, PersistenceManager persistenceManager) {
+        return new DurableFilmStorage(filmStorage, persistenceManager);
+    }
+
+    @Bean
+    @Primary
+    public UserStorage durableUserStorage(InMemoryUserStorage userStorage, PersistenceManager persistenceManager) {
+        return new DurableUserStorage(userStorage, persistenceManager);
+    }
+}
@@ -0,0 +1,326 @@
+package ru.yandex.practicum.storage.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.storage.film.FilmStorage;
+import ru.yandex.practicum.storage.user.UserStorage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Восстанавливает хранилища из последнего снимка и журнала при старте,
+ * журналирует изменения и периодически сохраняет компактный снимок.
+ * Снимок {@code snapshot-<N>.<формат>} содержит всё, что было записано в сегменты журнала с номерами меньше N.
+ */
+@Slf4j
+public class PersistenceManager {
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ObjectMapper objectMapper;
+    private final PersistenceProperties properties;
+    private final List<SnapshotFormat> formats;
+    private final SnapshotFormat snapshotFormat;
+    private final SnapshotFormat jsonFormat;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final ReentrantReadWriteLock journalLock = new ReentrantReadWriteLock();
+    private ScheduledExecutorService scheduler;
+    private WriteAheadLog wal;
+
+    public PersistenceManager(FilmStorage filmStorage, UserStorage userStorage, ObjectMapper objectMapper,
+                              PersistenceProperties properties) {
+        this(filmStorage, userStorage, objectMapper, properties, new BinarySnapshotFormat());
+    }
+
+    /**
+     * Двоичный снимок, не поместившийся в формат, сохраняется в JSON, чтобы журнал продолжал сокращаться.
+     */
+    public PersistenceManager(FilmStorage filmStorage, UserStorage userStorage, ObjectMapper objectMapper,
+                              PersistenceProperties properties, BinarySnapshotFormat binary) {
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.jsonFormat = new JsonSnapshotFormat(objectMapper);
+        this.formats = List.of(binary, jsonFormat);
+        this.snapshotFormat = switch (properties.getSnapshotFormat()) {
+            case BINARY -> binary;
+            case JSON -> jsonFormat;
+        };
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(properties.getDirectory());
+        long nextSegment = recover();
+        wal = new WriteAheadLog(properties.getDirectory(), nextSegment);
+
+        long interval = properties.getSnapshotInterval().toMillis();
+        if (interval > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "snapshot-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::scheduledSnapshot, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (wal != null) {
+            wal.close();
+        }
+    }
+
+    public void journalFilms(List<Film> films, Runnable apply) {
+        journal(films, WalRecord::of, apply);
+    }
+
+    public void journalUsers(List<User> users, Runnable apply) {
+        journal(users, WalRecord::of, apply);
+    }
+
+    /**
+     * Записывает изменения в журнал одним group commit и после fsync применяет их в памяти.
+     * Снимок не начинается, пока записанное в журнал не применено: иначе сегмент с изменением
+     * удалился бы раньше, чем оно попало в снимок.
+     */
+    private <T> void journal(List<T> entities, Function<T, WalRecord> toRecord, Runnable apply) {
+        journalLock.readLock().lock();
+        try {
+            CompletableFuture<?>[] journaled = new CompletableFuture<?>[entities.size()];
+            for (int i = 0; i < journaled.length; i++) {
+                journaled[i] = wal.append(toLine(toRecord.apply(entities.get(i))));
+            }
+            CompletableFuture.allOf(journaled).join();
+            apply.run();
+        } finally {
+            journalLock.readLock().unlock();
+        }
+    }
+
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            long started = System.nanoTime();
+            long covered;
+            journalLock.writeLock().lock();
+            try {
+                covered = wal.rotate();
+            } finally {
+                journalLock.writeLock().unlock();
+            }
+            Path directory = properties.getDirectory();
+            Path tmp = directory.resolve(SNAPSHOT_PREFIX + "tmp");
+            SnapshotFormat format = snapshotFormat;
+            try {
+                try {
+                    writeSnapshot(tmp, format);
+                } catch (BinarySnapshotFormat.TooLargeException e) {
+                    log.warn("{}, снимок сохраняется в JSON", e.getMessage());
+                    format = jsonFormat;
+                    writeSnapshot(tmp, format);
+                }
+            } catch (IOException | RuntimeException e) {
+                // Сегменты журнала удаляются только после того, как снимок целиком записан
+                Files.deleteIfExists(tmp);
+                throw e;
+            }
+            Files.move(tmp, snapshotPath(covered, format), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+
+            for (Path file : snapshots()) {
+                if (snapshotNumber(file) < covered) {
+                    Files.delete(file);
+                }
+            }
+            for (Path segment : WriteAheadLog.segments(directory)) {
+                if (WriteAheadLog.segmentNumber(segment) < covered) {
+                    Files.delete(segment);
+                }
+            }
+            log.info("Сохранён снимок данных за {} мс", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void writeSnapshot(Path file, SnapshotFormat format) throws IOException {
+        try (Stream<Film> films = filmStorage.streamFrom(0); Stream<User> users = userStorage.streamFrom(0)) {
+            format.write(file, films, users);
+        }
+    }
+
+    /**
+     * @return номер сегмента журнала, с которого нужно продолжить запись
+     */
+    private long recover() throws IOException {
+        long started = System.nanoTime();
+        long nextSegment = 1;
+        Optional<Path> snapshot = snapshots().stream().reduce((first, second) -> second);
+        if (snapshot.isPresent()) {
+            nextSegment = snapshotNumber(snapshot.get());
+            formatOf(snapshot.get()).read(snapshot.get(), filmStorage::restore, userStorage::restore);
+        }
+        List<Path> segments = WriteAheadLog.segments(properties.getDirectory());
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            long number = WriteAheadLog.segmentNumber(segment);
+            if (number >= nextSegment) {
+                replay(segment, i == segments.size() - 1);
+                nextSegment = number + 1;
+            }
+        }
+        log.info("Восстановлено фильмов: {}, пользователей: {} за {} мс", filmStorage.size(), userStorage.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return nextSegment;
+    }
+
+    private void replay(Path file, boolean lastSegment) throws IOException {
+        long position = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                long lineStart = position;
+                position += utf8Length(line) + 1;
+                if (line.isEmpty()) {
+                    continue;
+                }
+                WalRecord record;
+                try {
+                    record = objectMapper.readValue(line, WalRecord.class);
+                } catch (IOException e) {
+                    // Недописанная последняя строка журнала означает сбой во время записи:
+                    // эта операция не была подтверждена клиенту, её можно отбросить.
+                    if (lastSegment && reader.readLine() == null) {
+                        discardTail(file, lineStart);
+                        return;
+                    }
+                    throw e;
+                }
+                apply(record);
+            }
+        }
+    }
+
+    /**
+     * Обрезает недописанную запись. Следующий запуск начнёт новый сегмент, и этот перестанет
+     * быть последним: оставленный хвост тогда считался бы повреждением журнала.
+     */
+    private static void discardTail(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            channel.force(true);
+        }
+        log.warn("Отброшена недописанная запись в конце {}", file.getFileName());
+    }
+
+    /**
+     * Длина строки в байтах UTF-8 без её кодирования. Строки до обрыва записаны целиком,
+     * поэтому сумма их длин с переводами строк — смещение начала недописанной записи.
+     */
+    private static int utf8Length(String line) {
+        int length = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < line.length()
+                    && Character.isLowSurrogate(line.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private void apply(WalRecord record) {
+        switch (record.kind()) {
+            case FILM -> filmStorage.restore(record.film());
+            case USER -> userStorage.restore(record.user());
+        }
+    }
+
+    private void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            log.error("Не удалось сохранить снимок данных", e);
+        }
+    }
+
+    private byte[] toLine(WalRecord record) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(record);
+            byte[] line = new byte[json.length + 1];
+            System.arraycopy(json, 0, line, 0, json.length);
+            line[json.length] = '\n';
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(properties.getDirectory())) {
+            return files.filter(file -> file.getFileName().toString().startsWith(SNAPSHOT_PREFIX))
+                    .filter(file -> formats.stream().anyMatch(format -> hasExtension(file, format)))
+                    .sorted(Comparator.comparingLong(PersistenceManager::snapshotNumber))
+                    .toList();
+        }
+    }
+
+    private SnapshotFormat formatOf(Path snapshot) {
+        return formats.stream()
+                .filter(format -> hasExtension(snapshot, format))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Path snapshotPath(long number, SnapshotFormat format) {
+        return properties.getDirectory()
+                .resolve(String.format("%s%012d.%s", SNAPSHOT_PREFIX, number, format.extension()));
+    }
+
+    private static boolean hasExtension(Path file, SnapshotFormat format) {
+        return file.getFileName().toString().endsWith("." + format.extension());
+    }
+
+    private static long snapshotNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.lastIndexOf('.')));
+    }
+}
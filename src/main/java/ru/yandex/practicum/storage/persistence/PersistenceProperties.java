@@ -0,0 +1,21 @@
+package ru.yandex.practicum.storage.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "filmorate.persistence")
+public class PersistenceProperties {
+    private boolean enabled = false;
+    private Path directory = Path.of("data");
+    private Duration snapshotInterval = Duration.ofMinutes(10);
+    private SnapshotType snapshotFormat = SnapshotType.BINARY;
+
+    public enum SnapshotType {
+        JSON,
+        BINARY
+    }
+}
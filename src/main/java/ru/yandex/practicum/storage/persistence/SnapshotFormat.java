@@ -0,0 +1,24 @@
+package ru.yandex.practicum.storage.persistence;
+
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Формат файла снимка. Реализация должна сама сбросить записанные данные на диск.
+ */
+public interface SnapshotFormat {
+
+    /**
+     * Расширение файлов снимка без точки, по нему формат выбирается при восстановлении.
+     */
+    String extension();
+
+    void write(Path file, Stream<Film> films, Stream<User> users) throws IOException;
+
+    void read(Path file, Consumer<Film> films, Consumer<User> users) throws IOException;
+}
@@ -0,0 +1,26 @@
+package ru.yandex.practicum.storage.persistence;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+
+/**
+ * Строка журнала или JSON-снимка: полное состояние одной сущности после изменения.
+ * Добавление и обновление записываются одинаково, поэтому повторное применение безопасно.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record WalRecord(Kind kind, Film film, User user) {
+
+    public enum Kind {
+        FILM,
+        USER
+    }
+
+    public static WalRecord of(Film film) {
+        return new WalRecord(Kind.FILM, film, null);
+    }
+
+    public static WalRecord of(User user) {
+        return new WalRecord(Kind.USER, null, user);
+    }
+}
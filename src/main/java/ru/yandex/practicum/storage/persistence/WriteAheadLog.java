@@ -0,0 +1,195 @@
+package ru.yandex.practicum.storage.persistence;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Журнал изменений, разбитый на сегменты {@code wal-<номер>.log}.
+ * Записи из всех потоков сбрасываются на диск одним фоновым потоком пачками:
+ * один fsync подтверждает всё, что накопилось за время предыдущего.
+ */
+@Slf4j
+public class WriteAheadLog implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int MAX_BATCH_SIZE = 4096;
+
+    private final Path directory;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final ReentrantLock fileLock = new ReentrantLock();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private FileChannel channel;
+    private long segment;
+
+    public WriteAheadLog(Path directory, long segment) throws IOException {
+        this.directory = directory;
+        openSegment(segment);
+        writer = new Thread(this::writeLoop, "wal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Ставит строку в очередь на запись. Future завершается после fsync пачки, в которую она попала.
+     */
+    public CompletableFuture<Void> append(byte[] line) {
+        PendingWrite write = new PendingWrite(line, new CompletableFuture<>());
+        if (!running) {
+            write.done().completeExceptionally(closed());
+            return write.done();
+        }
+        queue.add(write);
+        if (!running) {
+            // Журнал закрылся между проверкой и добавлением: писатель эту запись может уже не забрать
+            rejectQueued();
+        }
+        return write.done();
+    }
+
+    /**
+     * Начинает новый сегмент. Все записи, подтверждённые до вызова, лежат в сегментах
+     * с меньшими номерами.
+     *
+     * @return номер нового текущего сегмента
+     */
+    public long rotate() throws IOException {
+        fileLock.lock();
+        try {
+            channel.close();
+            openSegment(segment + 1);
+            return segment;
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejectQueued();
+        fileLock.lock();
+        try {
+            channel.close();
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    public static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(WriteAheadLog::isSegment)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    public static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private void openSegment(long number) throws IOException {
+        Path file = directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        segment = number;
+    }
+
+    /**
+     * Пишет пачки, пока журнал открыт. При любом выходе, в том числе из-за непредвиденной ошибки,
+     * журнал закрывается для новых записей, а неподтверждённые завершаются исключением:
+     * иначе вызывающие ждали бы их вечно, удерживая блокировки записей.
+     */
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>();
+        try {
+            while (running || !queue.isEmpty()) {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                writeBatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            log.error("Поток записи журнала остановлен", e);
+            throw e;
+        } finally {
+            running = false;
+            batch.forEach(write -> write.done().completeExceptionally(closed()));
+            rejectQueued();
+        }
+    }
+
+    private void rejectQueued() {
+        PendingWrite rejected;
+        while ((rejected = queue.poll()) != null) {
+            rejected.done().completeExceptionally(closed());
+        }
+    }
+
+    private static IllegalStateException closed() {
+        return new IllegalStateException("Журнал изменений закрыт");
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        int size = 0;
+        for (PendingWrite write : batch) {
+            size += write.line().length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (PendingWrite write : batch) {
+            buffer.put(write.line());
+        }
+        buffer.flip();
+
+        fileLock.lock();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            log.error("Не удалось записать {} изменений в журнал", batch.size(), e);
+            batch.forEach(write -> write.done().completeExceptionally(e));
+            return;
+        } finally {
+            fileLock.unlock();
+        }
+        batch.forEach(write -> write.done().complete(null));
+    }
+
+    private record PendingWrite(byte[] line, CompletableFuture<Void> done) {
+    }
+}
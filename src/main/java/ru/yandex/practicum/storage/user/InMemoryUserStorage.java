@@ -0,0 +1,303 @@
+package ru.yandex.practicum.storage.user;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.exception.ConflictException;
+import ru.yandex.practicum.exception.VersionConflictException;
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.storage.EntityTable;
+import ru.yandex.practicum.storage.IdRange;
+import ru.yandex.practicum.storage.SkipListTable;
+import ru.yandex.practicum.storage.StorageLayout;
+import ru.yandex.practicum.storage.StripedLocks;
+import ru.yandex.practicum.storage.VersionIndex;
+import ru.yandex.practicum.storage.WriteAhead;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+public class InMemoryUserStorage implements UserStorage {
+
+    private static final int LOCK_STRIPES = 64;
+    // Значение индекса для логина/почты, которые уже заняты, но пользователю ещё не присвоен id
+    private static final int PENDING_ID = 0;
+
+    private final EntityTable<User> users;
+    private final ConcurrentHashMap<String, Integer> loginIndex = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> emailIndex = new ConcurrentHashMap<>();
+    private final StripedLocks locks = new StripedLocks(LOCK_STRIPES);
+    private final IdRange idRange;
+    private final AtomicInteger counter;
+    private final VersionIndex versions = new VersionIndex();
+    private volatile WriteAhead<User> writeAhead = WriteAhead.none();
+
+    public InMemoryUserStorage() {
+        this(StorageLayout.OBJECTS);
+    }
+
+    public InMemoryUserStorage(StorageLayout layout) {
+        this(layout, IdRange.ALL);
+    }
+
+    @Autowired
+    public InMemoryUserStorage(@Value("${filmorate.storage.layout:objects}") StorageLayout layout, IdRange idRange) {
+        users = layout == StorageLayout.COLUMNAR ? new UserColumns() : new SkipListTable<>();
+        this.idRange = idRange;
+        counter = new AtomicInteger(idRange.first() - 1);
+    }
+
+    /**
+     * Журнал, в который изменения записываются до публикации; устанавливается до первого изменения.
+     */
+    public void setWriteAhead(WriteAhead<User> writeAhead) {
+        this.writeAhead = writeAhead;
+    }
+
+    @Override
+    public User add(User user) {
+        claimNew(user);
+        try {
+            user.setId(nextId());
+            versions.publish(user.getId(), version -> {
+                user.setVersion(version);
+                writeAhead.write(List.of(user), () -> users.put(user));
+                return 0;
+            });
+        } catch (RuntimeException e) {
+            releaseNew(user);
+            throw e;
+        }
+        confirmNew(user);
+        return user;
+    }
+
+    /**
+     * Пользователи пачки с незанятыми логином и почтой получают версии подряд
+     * и записываются в журнал вместе.
+     */
+    @Override
+    public void addAll(List<User> added, BiConsumer<Integer, ConflictException> onConflict) {
+        List<User> accepted = new ArrayList<>(added.size());
+        for (int i = 0; i < added.size(); i++) {
+            try {
+                claimNew(added.get(i));
+                accepted.add(added.get(i));
+            } catch (ConflictException e) {
+                onConflict.accept(i, e);
+            }
+        }
+        try {
+            int[] ids = new int[accepted.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = nextId();
+                accepted.get(i).setId(ids[i]);
+            }
+            versions.publishAll(ids, (from, to, firstVersion) -> {
+                List<User> part = accepted.subList(from, to);
+                for (int i = 0; i < part.size(); i++) {
+                    part.get(i).setVersion(firstVersion + i);
+                }
+                writeAhead.write(part, () -> part.forEach(users::put));
+                part.forEach(this::confirmNew);
+            });
+        } catch (RuntimeException e) {
+            // Опубликованные части уже подтвердили свои логины, освобождаются только остальные
+            accepted.forEach(this::releaseNew);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<User> update(User user, long expectedVersion) {
+        int id = user.getId();
+        ReentrantLock lock = locks.forId(id);
+        lock.lock();
+        try {
+            User current = users.get(id);
+            if (current == null) {
+                return Optional.empty();
+            }
+            if (expectedVersion != ANY_VERSION && current.getVersion() != expectedVersion) {
+                throw new VersionConflictException("Пользователь с id " + id + " уже изменён: версия "
+                        + current.getVersion() + ", ожидалась " + expectedVersion);
+            }
+            String oldLogin = current.getLogin();
+            String newLogin = user.getLogin();
+            String oldEmail = normalizeEmail(current.getEmail());
+            String newEmail = normalizeEmail(user.getEmail());
+            boolean loginChanged = !oldLogin.equals(newLogin);
+            boolean emailChanged = !oldEmail.equals(newEmail);
+
+            if (loginChanged) {
+                claim(loginIndex, newLogin, id, "Логин " + newLogin + " уже используется");
+            }
+            if (emailChanged) {
+                try {
+                    claim(emailIndex, newEmail, id, "Электронная почта " + user.getEmail() + " уже используется");
+                } catch (ConflictException e) {
+                    if (loginChanged) {
+                        loginIndex.remove(newLogin, id);
+                    }
+                    throw e;
+                }
+            }
+            try {
+                versions.publish(id, version -> {
+                    user.setVersion(version);
+                    writeAhead.write(List.of(user), () -> users.put(user));
+                    return current.getVersion();
+                });
+            } catch (RuntimeException e) {
+                if (loginChanged) {
+                    loginIndex.remove(newLogin, id);
+                }
+                if (emailChanged) {
+                    emailIndex.remove(newEmail, id);
+                }
+                throw e;
+            }
+            if (loginChanged) {
+                loginIndex.remove(oldLogin, id);
+            }
+            if (emailChanged) {
+                emailIndex.remove(oldEmail, id);
+            }
+            return Optional.of(user);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void restore(User user) {
+        ReentrantLock lock = locks.forId(user.getId());
+        lock.lock();
+        try {
+            User current = users.get(user.getId());
+            if (current != null && user.getVersion() > 0 && current.getVersion() > user.getVersion()) {
+                // Запись журнала старше уже восстановленной версии
+                return;
+            }
+            user.setVersion(versions.restore(user.getId(), current == null ? 0 : current.getVersion(),
+                    user.getVersion()));
+            users.put(user);
+            if (current != null) {
+                loginIndex.remove(current.getLogin(), current.getId());
+                emailIndex.remove(normalizeEmail(current.getEmail()), current.getId());
+            }
+            loginIndex.put(user.getLogin(), user.getId());
+            emailIndex.put(normalizeEmail(user.getEmail()), user.getId());
+            counter.accumulateAndGet(user.getId(), Math::max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> findById(int id) {
+        return Optional.ofNullable(users.get(id));
+    }
+
+    @Override
+    public boolean isLoginTaken(String login) {
+        return loginIndex.containsKey(login);
+    }
+
+    @Override
+    public boolean isEmailTaken(String email) {
+        return emailIndex.containsKey(normalizeEmail(email));
+    }
+
+    @Override
+    public List<User> getAll() {
+        return users.ascendingAfter(0).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Override
+    public List<User> getPage(int afterId, int limit) {
+        return streamFrom(afterId).limit(limit).toList();
+    }
+
+    @Override
+    public Stream<User> streamFrom(int afterId) {
+        return users.ascendingAfter(afterId);
+    }
+
+    @Override
+    public int size() {
+        return users.size();
+    }
+
+    @Override
+    public long version() {
+        return versions.current();
+    }
+
+    @Override
+    public List<User> getChangedSince(long since, int limit) {
+        List<User> changed = new ArrayList<>();
+        for (int id : versions.changedSince(since, limit)) {
+            User user = users.get(id);
+            if (user != null && user.getVersion() > since) {
+                changed.add(user);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Занимает логин и почту нового пользователя, пока у него нет id.
+     */
+    private void claimNew(User user) {
+        String login = user.getLogin();
+        claim(loginIndex, login, PENDING_ID, "Логин " + login + " уже используется");
+        try {
+            claim(emailIndex, normalizeEmail(user.getEmail()), PENDING_ID,
+                    "Электронная почта " + user.getEmail() + " уже используется");
+        } catch (ConflictException e) {
+            loginIndex.remove(login, PENDING_ID);
+            throw e;
+        }
+    }
+
+    private void confirmNew(User user) {
+        loginIndex.replace(user.getLogin(), PENDING_ID, user.getId());
+        emailIndex.replace(normalizeEmail(user.getEmail()), PENDING_ID, user.getId());
+    }
+
+    private void releaseNew(User user) {
+        loginIndex.remove(user.getLogin(), PENDING_ID);
+        emailIndex.remove(normalizeEmail(user.getEmail()), PENDING_ID);
+    }
+
+    private static void claim(Map<String, Integer> index, String key, int id, String conflictMessage) {
+        Integer owner = index.putIfAbsent(key, id);
+        if (owner != null && (id == PENDING_ID || owner != id)) {
+            throw new ConflictException(conflictMessage);
+        }
+    }
+
+    private static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private int nextId() {
+        int id = counter.incrementAndGet();
+        if (id < idRange.first() || id > idRange.last()) {
+            throw new IllegalStateException("Свободных id в диапазоне " + idRange.first() + ".." + idRange.last()
+                    + " не осталось");
+        }
+        return id;
+    }
+}
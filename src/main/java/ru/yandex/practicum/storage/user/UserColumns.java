@@ -0,0 +1,49 @@
+package ru.yandex.practicum.storage.user;
+
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.storage.ColumnarTable;
+
+import java.time.LocalDate;
+
+/**
+ * Пользователи по столбцам: дата рождения хранится номером дня от эпохи.
+ * Имя, совпадающее с логином (так бывает у всех пользователей без имени), хранится той же строкой.
+ */
+class UserColumns extends ColumnarTable<User, UserColumns.UserPage> {
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    @Override
+    protected UserPage newPage() {
+        return new UserPage();
+    }
+
+    @Override
+    protected void write(UserPage page, int slot, User user) {
+        page.emails[slot] = user.getEmail();
+        page.logins[slot] = user.getLogin();
+        page.names[slot] = user.getLogin().equals(user.getName()) ? user.getLogin() : user.getName();
+        page.birthdays[slot] = user.getBirthday() == null ? NO_DATE
+                : Math.toIntExact(user.getBirthday().toEpochDay());
+    }
+
+    @Override
+    protected User read(UserPage page, int slot, int id, long version) {
+        int birthday = page.birthdays[slot];
+        User user = new User();
+        user.setId(id);
+        user.setVersion(version);
+        user.setEmail(page.emails[slot]);
+        user.setLogin(page.logins[slot]);
+        user.setName(page.names[slot]);
+        user.setBirthday(birthday == NO_DATE ? null : LocalDate.ofEpochDay(birthday));
+        return user;
+    }
+
+    static final class UserPage extends ColumnarTable.Page {
+        final String[] emails = new String[PAGE_SIZE];
+        final String[] logins = new String[PAGE_SIZE];
+        final String[] names = new String[PAGE_SIZE];
+        final int[] birthdays = new int[PAGE_SIZE];
+    }
+}
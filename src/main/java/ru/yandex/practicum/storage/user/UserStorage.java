@@ -0,0 +1,78 @@
+package ru.yandex.practicum.storage.user;
+
+import ru.yandex.practicum.exception.ConflictException;
+import ru.yandex.practicum.exception.VersionConflictException;
+import ru.yandex.practicum.model.User;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+public interface UserStorage {
+
+    long ANY_VERSION = 0;
+
+    User add(User user);
+
+    /**
+     * Добавляет пользователей по порядку. Пользователь с занятым логином или почтой пропускается,
+     * ошибка передаётся в onConflict вместе с его позицией в списке.
+     */
+    default void addAll(List<User> users, BiConsumer<Integer, ConflictException> onConflict) {
+        for (int i = 0; i < users.size(); i++) {
+            try {
+                add(users.get(i));
+            } catch (ConflictException e) {
+                onConflict.accept(i, e);
+            }
+        }
+    }
+
+    /**
+     * Обновляет запись, если её текущая версия равна expectedVersion; {@link #ANY_VERSION} — без проверки.
+     *
+     * @throws VersionConflictException если запись уже изменили
+     */
+    Optional<User> update(User user, long expectedVersion);
+
+    default Optional<User> update(User user) {
+        return update(user, ANY_VERSION);
+    }
+
+    /**
+     * Сохраняет пользователя с уже назначенным id, заменяя прежнюю версию.
+     * Используется при восстановлении данных после перезапуска.
+     */
+    void restore(User user);
+
+    Optional<User> findById(int id);
+
+    /**
+     * Занят ли логин пользователем этого хранилища, в том числе ещё не завершённым добавлением.
+     */
+    boolean isLoginTaken(String login);
+
+    /**
+     * Занята ли почта пользователем этого хранилища; регистр и пробелы по краям не учитываются.
+     */
+    boolean isEmailTaken(String email);
+
+    List<User> getAll();
+
+    List<User> getPage(int afterId, int limit);
+
+    Stream<User> streamFrom(int afterId);
+
+    int size();
+
+    /**
+     * Текущая версия коллекции: номер последнего изменения.
+     */
+    long version();
+
+    /**
+     * Записи, изменённые после версии since, в порядке изменения.
+     */
+    List<User> getChangedSince(long since, int limit);
+}
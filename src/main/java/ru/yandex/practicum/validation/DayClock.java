@@ -0,0 +1,41 @@
+package ru.yandex.practicum.validation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Текущая дата, которая пересчитывается только при смене суток, а не при каждом обращении.
+ */
+public final class DayClock {
+
+    public static final DayClock SYSTEM = new DayClock(Clock.systemDefaultZone());
+
+    private final Clock clock;
+    private volatile Day day;
+
+    public DayClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public LocalDate today() {
+        long now = clock.millis();
+        Day current = day;
+        // Часы могли и перевести назад, поэтому проверяем обе границы суток
+        if (current == null || now < current.startMillis() || now >= current.endMillis()) {
+            current = Day.of(now, clock);
+            day = current;
+        }
+        return current.date();
+    }
+
+    private record Day(LocalDate date, long startMillis, long endMillis) {
+
+        static Day of(long millis, Clock clock) {
+            LocalDate date = LocalDate.ofInstant(Instant.ofEpochMilli(millis), clock.getZone());
+            return new Day(date,
+                    date.atStartOfDay(clock.getZone()).toInstant().toEpochMilli(),
+                    date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli());
+        }
+    }
+}
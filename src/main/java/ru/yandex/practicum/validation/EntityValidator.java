@@ -0,0 +1,15 @@
+package ru.yandex.practicum.validation;
+
+import java.util.Map;
+
+/**
+ * Проверка сущности ограничениями её полей.
+ */
+public interface EntityValidator {
+
+    /**
+     * @return сообщения об ошибках по имени поля, как в ответе на запрос с некорректным телом;
+     * пустая карта, если ошибок нет
+     */
+    Map<String, String> validate(Object entity);
+}
@@ -0,0 +1,147 @@
+package ru.yandex.practicum.validation;
+
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Past;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import ru.yandex.practicum.exception.ReleaseDate;
+import ru.yandex.practicum.exception.ReleaseDateValidator;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+
+import java.lang.annotation.Annotation;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Проверки полей Film и User, написанные вручную по их аннотациям: без обхода метаданных
+ * и создания нарушений на каждый вызов. Сообщения берутся из тех же аннотаций при создании,
+ * поэтому совпадают с проверкой через Bean Validation. Если у поля нарушено несколько ограничений,
+ * возвращается сообщение первого из объявленных. Формат почты проверяет сам Bean Validation
+ * (только это поле), чтобы набор допустимых адресов не разошёлся с {@code @Email}.
+ * Прочие типы проверяются через {@link ReflectiveEntityValidator}.
+ */
+public class PrecompiledEntityValidator implements EntityValidator {
+
+    private static final int MAX_DESCRIPTION_LENGTH = 200;
+
+    private final Validator validator;
+    private final EntityValidator fallback;
+    private final DayClock dayClock;
+
+    private final String filmNameBlank = message(Film.class, "name", NotBlank.class);
+    private final String filmDescriptionBlank = message(Film.class, "description", NotBlank.class);
+    private final String filmDescriptionTooLong = message(Film.class, "description", Size.class);
+    private final String filmReleaseDate = message(Film.class, "releaseDate", ReleaseDate.class);
+    private final String filmDuration = message(Film.class, "duration", Positive.class);
+    private final String userEmailBlank = message(User.class, "email", NotBlank.class);
+    private final String userEmailInvalid = message(User.class, "email", Email.class);
+    private final String userLoginBlank = message(User.class, "login", NotBlank.class);
+    private final String userLoginPattern = message(User.class, "login", Pattern.class);
+    private final String userBirthday = message(User.class, "birthday", Past.class);
+
+    public PrecompiledEntityValidator(Validator validator, DayClock dayClock) {
+        this.validator = validator;
+        this.fallback = new ReflectiveEntityValidator(validator);
+        this.dayClock = dayClock;
+    }
+
+    @Override
+    public Map<String, String> validate(Object entity) {
+        if (entity instanceof Film film) {
+            return validateFilm(film);
+        }
+        if (entity instanceof User user) {
+            return validateUser(user);
+        }
+        return fallback.validate(entity);
+    }
+
+    private Map<String, String> validateFilm(Film film) {
+        Map<String, String> errors = null;
+        if (isBlank(film.getName())) {
+            errors = put(errors, "name", filmNameBlank);
+        }
+        if (isBlank(film.getDescription())) {
+            errors = put(errors, "description", filmDescriptionBlank);
+        } else if (film.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            errors = put(errors, "description", filmDescriptionTooLong);
+        }
+        if (!ReleaseDateValidator.isWithinBounds(film.getReleaseDate(), dayClock.today())) {
+            errors = put(errors, "releaseDate", filmReleaseDate);
+        }
+        if (film.getDuration() <= 0) {
+            errors = put(errors, "duration", filmDuration);
+        }
+        return errors == null ? Map.of() : errors;
+    }
+
+    private Map<String, String> validateUser(User user) {
+        Map<String, String> errors = null;
+        if (isBlank(user.getEmail())) {
+            errors = put(errors, "email", userEmailBlank);
+        } else if (!validator.validateValue(User.class, "email", user.getEmail()).isEmpty()) {
+            // Почта не пустая, значит нарушено только @Email
+            errors = put(errors, "email", userEmailInvalid);
+        }
+        if (isBlank(user.getLogin())) {
+            errors = put(errors, "login", userLoginBlank);
+        } else if (containsWhitespace(user.getLogin())) {
+            errors = put(errors, "login", userLoginPattern);
+        }
+        LocalDate birthday = user.getBirthday();
+        if (birthday != null && !birthday.isBefore(dayClock.today())) {
+            errors = put(errors, "birthday", userBirthday);
+        }
+        return errors == null ? Map.of() : errors;
+    }
+
+    /**
+     * Как {@code @NotBlank}: null или строка, которая после trim() пуста.
+     */
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Обратное к шаблону логина {@code ^[^\s]+$} для непустой строки: {@code \s} без флага UNICODE — это
+     * пробел, \t, \n, \x0B, \f и \r.
+     */
+    private static boolean containsWhitespace(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ' ' || c >= '\t' && c <= '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, String> put(Map<String, String> errors, String field, String message) {
+        Map<String, String> result = errors == null ? new HashMap<>(4) : errors;
+        result.put(field, message);
+        return result;
+    }
+
+    private static String message(Class<?> type, String field, Class<? extends Annotation> constraint) {
+        try {
+            Annotation annotation = type.getDeclaredField(field).getAnnotation(constraint);
+            return (String) constraint.getMethod("message").invoke(annotation);
+        } catch (ReflectiveOperationException | NullPointerException e) {
+            throw new IllegalStateException("Нет ограничения " + constraint.getSimpleName() + " на поле "
+                    + type.getSimpleName() + "." + field, e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.yandex.practicum.validation;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Проверка через Bean Validation по аннотациям модели.
+ */
+@RequiredArgsConstructor
+public class ReflectiveEntityValidator implements EntityValidator {
+
+    private final Validator validator;
+
+    @Override
+    public Map<String, String> validate(Object entity) {
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<Object> violation : validator.validate(entity)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+}
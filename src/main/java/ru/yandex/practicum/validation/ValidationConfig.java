@@ -0,0 +1,55 @@
+package ru.yandex.practicum.validation;
+
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Errors;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Выбирает, как проверяются тела запросов с {@code @Valid} и записи пакетной загрузки:
+ * через Bean Validation (reflective) или написанными вручную проверками (precompiled).
+ */
+@Configuration
+public class ValidationConfig implements WebMvcConfigurer {
+
+    private final Mode mode;
+    private final EntityValidator entityValidator;
+
+    public ValidationConfig(Validator validator, @Value("${filmorate.validation.mode:precompiled}") Mode mode) {
+        this.mode = mode;
+        entityValidator = mode == Mode.PRECOMPILED
+                ? new PrecompiledEntityValidator(validator, DayClock.SYSTEM)
+                : new ReflectiveEntityValidator(validator);
+    }
+
+    @Bean
+    public EntityValidator entityValidator() {
+        return entityValidator;
+    }
+
+    @Override
+    public org.springframework.validation.Validator getValidator() {
+        if (mode == Mode.REFLECTIVE) {
+            return null;
+        }
+        return new org.springframework.validation.Validator() {
+            @Override
+            public boolean supports(Class<?> type) {
+                return true;
+            }
+
+            @Override
+            public void validate(Object target, Errors errors) {
+                entityValidator.validate(target).forEach((field, message) ->
+                        errors.rejectValue(field, "Invalid", message));
+            }
+        };
+    }
+
+    public enum Mode {
+        REFLECTIVE,
+        PRECOMPILED
+    }
+}
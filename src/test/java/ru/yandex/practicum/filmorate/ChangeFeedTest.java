@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.controller.EventController;
+import ru.yandex.practicum.controller.JsonResponseCache;
+import ru.yandex.practicum.feed.ChangeFeed;
+import ru.yandex.practicum.feed.FeedProperties;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ChangeFeedTest {
+
+    private ChangeFeed feed;
+
+    @AfterEach
+    public void tearDown() {
+        feed.close();
+    }
+
+    @Test
+    public void subscriberResumesAfterLastEventId() throws Exception {
+        MockMvc mockMvc = setUp(16);
+        for (int id = 1; id <= 3; id++) {
+            feed.publish(ChangeFeed.Type.FILM_ADDED, film(id));
+        }
+        MockHttpServletResponse response = mockMvc.perform(get("/events").header("Last-Event-ID", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        awaitContent(response, "id:3\n");
+        String content = response.getContentAsString();
+        assertFalse(content.contains("id:1\n"));
+        assertTrue(content.contains("id:2\nevent:film.added\ndata:{\"id\":2,"));
+
+        Film updated = film(2);
+        updated.setVersion(2);
+        feed.publish(ChangeFeed.Type.FILM_UPDATED, updated);
+        awaitContent(response, "id:4\nevent:film.updated\ndata:{\"id\":2,");
+    }
+
+    @Test
+    public void laggingSubscriberIsResetToLatestEvents() throws Exception {
+        MockMvc mockMvc = setUp(4);
+        for (int id = 1; id <= 10; id++) {
+            feed.publish(ChangeFeed.Type.FILM_ADDED, film(id));
+        }
+        MockHttpServletResponse response = mockMvc.perform(get("/events").param("after", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        awaitContent(response, "id:10\nevent:reset\ndata:10\n");
+
+        feed.publish(ChangeFeed.Type.FILM_ADDED, film(11));
+        awaitContent(response, "id:11\n");
+        assertFalse(response.getContentAsString().contains("id:2\n"));
+    }
+
+    @Test
+    public void staleVersionOfRecordIsNotPublished() throws Exception {
+        MockMvc mockMvc = setUp(16);
+        Film newer = film(1);
+        newer.setVersion(3);
+        feed.publish(ChangeFeed.Type.FILM_UPDATED, newer);
+        feed.publish(ChangeFeed.Type.FILM_UPDATED, film(1));
+        feed.publish(ChangeFeed.Type.USER_ADDED, user(1));
+        assertEquals(2, feed.lastOffset());
+
+        MockHttpServletResponse response = mockMvc.perform(get("/events").param("after", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        awaitContent(response, "id:2\nevent:user.added\n");
+        assertTrue(response.getContentAsString().contains("id:1\nevent:film.updated\ndata:{\"id\":1,\"version\":3,"));
+    }
+
+    @Test
+    public void negativeResumePositionIsRejected() throws Exception {
+        MockMvc mockMvc = setUp(16);
+        mockMvc.perform(get("/events").param("after", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/events").header("Last-Event-ID", "-5").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isBadRequest());
+        assertEquals(0, feed.subscriberCount());
+    }
+
+    private MockMvc setUp(int capacity) {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        JsonResponseCache jsonCache = new JsonResponseCache(objectMapper, DataSize.ofMegabytes(1));
+        FeedProperties properties = new FeedProperties();
+        properties.setCapacity(capacity);
+        feed = new ChangeFeed(properties, jsonCache::encode);
+        return MockMvcBuilders.standaloneSetup(new EventController(feed)).build();
+    }
+
+    private static Film film(int id) {
+        Film film = new Film();
+        film.setId(id);
+        film.setVersion(1);
+        film.setName("Film " + id);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    private static User user(int id) {
+        User user = new User();
+        user.setId(id);
+        user.setVersion(1);
+        user.setLogin("user" + id);
+        user.setEmail("user" + id + "@example.com");
+        user.setBirthday(LocalDate.of(2000, 1, 1));
+        return user;
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!response.getContentAsString().contains(expected)) {
+            assertTrue(System.currentTimeMillis() < deadline, "Нет события " + expected + " в " + response.getContentAsString());
+            Thread.sleep(10);
+        }
+    }
+}
@@ -2,26 +2,74 @@ package ru.yandex.practicum.filmorate.Film;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.audit.AuditLog;
+import ru.yandex.practicum.audit.AuditProperties;
 import ru.yandex.practicum.controller.FilmController;
+import ru.yandex.practicum.controller.JsonResponseCache;
+import ru.yandex.practicum.exception.GlobalExceptionHandler;
+import ru.yandex.practicum.feed.ChangeFeed;
+import ru.yandex.practicum.feed.FeedProperties;
 import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.service.BatchImporter;
+import ru.yandex.practicum.service.FilmSearchIndex;
+import ru.yandex.practicum.service.FilmService;
+import ru.yandex.practicum.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.storage.like.InMemoryLikeStorage;
+import ru.yandex.practicum.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.validation.ReflectiveEntityValidator;
 
 import java.time.LocalDate;
 
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class FilmControllerTest {
 
     private MockMvc mockMvc;
+    private InMemoryUserStorage userStorage;
+    private AuditLog auditLog;
+    private ChangeFeed changeFeed;
 
     @BeforeEach
     public void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(new FilmController()).build();
+        BatchImporter batchImporter = new BatchImporter(objectMapper(),
+                new ReflectiveEntityValidator(Validation.buildDefaultValidatorFactory().getValidator()));
+        userStorage = new InMemoryUserStorage();
+        FilmService filmService = new FilmService(new InMemoryFilmStorage(), userStorage, new InMemoryLikeStorage(),
+                batchImporter, new FilmSearchIndex());
+        JsonResponseCache jsonCache = new JsonResponseCache(objectMapper(), DataSize.ofMegabytes(16));
+        auditLog = new AuditLog(new AuditProperties());
+        changeFeed = new ChangeFeed(new FeedProperties(), jsonCache::encode);
+        FilmController controller = new FilmController(filmService, objectMapper(), auditLog, jsonCache, changeFeed);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        changeFeed.close();
+        auditLog.close();
     }
 
     @Test
@@ -57,7 +105,9 @@ public class FilmControllerTest {
         mockMvc.perform(post("/films")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(filmJson))
-                .andExpect(status().isBadRequest());
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists())
+                .andExpect(jsonPath("$.errors.duration").value("Продолжительность фильма должна быть положительным числом"));
     }
 
     @Test
@@ -112,4 +162,361 @@ public class FilmControllerTest {
                         .content(filmJson))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getFilmsWithCursorReturnsNextPage() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            addFilm("Film " + i);
+        }
+
+        mockMvc.perform(get("/films").param("after", "1").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(2));
+        mockMvc.perform(get("/films"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+    }
+
+    @Test
+    public void getFilmsFiltersAndSortsByIndexedFields() throws Exception {
+        addFilm("Short", LocalDate.of(1999, 5, 1), 80);
+        addFilm("Long", LocalDate.of(2005, 1, 1), 180);
+        addFilm("Medium", LocalDate.of(2001, 3, 1), 120);
+        addFilm("Old", LocalDate.of(1980, 1, 1), 150);
+
+        mockMvc.perform(get("/films")
+                        .param("releasedFrom", "1990-01-01")
+                        .param("minDuration", "100")
+                        .param("sort", "duration")
+                        .param("order", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Long"))
+                .andExpect(jsonPath("$[1].name").value("Medium"));
+        mockMvc.perform(get("/films").param("sort", "releaseDate").param("limit", "2"))
+                .andExpect(jsonPath("$[0].name").value("Old"))
+                .andExpect(jsonPath("$[1].name").value("Short"));
+        mockMvc.perform(get("/films").param("sort", "releaseDate").param("after", "1").param("limit", "2"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Medium"))
+                .andExpect(jsonPath("$[1].name").value("Long"));
+        mockMvc.perform(get("/films").param("sort", "rating"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void malformedListParametersReturnBadRequest() throws Exception {
+        addFilm("Film");
+
+        mockMvc.perform(get("/films").param("releasedFrom", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Некорректное значение параметра releasedFrom: bad"));
+        mockMvc.perform(get("/films").param("limit", "abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Некорректное значение параметра limit: abc"));
+        mockMvc.perform(get("/films/search"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Не указан параметр query"));
+        mockMvc.perform(get("/films").param("sort", "duration").param("after", "42"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").exists());
+    }
+
+    @Test
+    public void getFilmsAsNdjsonStreamsOneFilmPerLine() throws Exception {
+        addFilm("First");
+        addFilm("Second");
+
+        MvcResult result = mockMvc.perform(get("/films")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("after", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(startsWith("{\"id\":2,")));
+    }
+
+    @Test
+    public void addFilmsBatchReportsInvalidItems() throws Exception {
+        String body = "["
+                + "{\"name\":\"First\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\",\"duration\":90},"
+                + "{\"name\":\"Bad\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\",\"duration\":-1},"
+                + "{\"name\":\"Old\",\"description\":\"d\",\"releaseDate\":\"1800-01-01\",\"duration\":90},"
+                + "{\"name\":\"Second\",\"description\":\"d\",\"releaseDate\":\"2001-01-01\",\"duration\":100}"
+                + "]";
+
+        mockMvc.perform(post("/films/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(4))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.errors[0].index").value(1))
+                .andExpect(jsonPath("$.errors[0].errors.duration")
+                        .value("Продолжительность фильма должна быть положительным числом"))
+                .andExpect(jsonPath("$.errors[1].index").value(2))
+                .andExpect(jsonPath("$.errors[1].errors.releaseDate").exists());
+        mockMvc.perform(get("/films"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].name").value("Second"));
+    }
+
+    @Test
+    public void addFilmsBatchCountsUnparseableItem() throws Exception {
+        String body = "[{\"name\":\"First\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\",\"duration\":90},"
+                + " garbage]";
+
+        mockMvc.perform(post("/films/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].index").value(1))
+                .andExpect(jsonPath("$.errors[0].errors.json").exists());
+    }
+
+    @Test
+    public void addFilmsBatchRejectsBodyThatIsNotJson() throws Exception {
+        mockMvc.perform(post("/films/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("garbage"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(startsWith("Некорректный JSON")));
+    }
+
+    @Test
+    public void addFilmsBatchAcceptsNdjson() throws Exception {
+        String body = "{\"name\":\"First\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\",\"duration\":90}\n"
+                + "{\"name\":\"Second\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\",\"duration\":\"long\"}\n"
+                + "{\"name\":\"Third\",\"description\":\"d\",\"releaseDate\":\"2000-01-01\",\"duration\":90}\n";
+
+        mockMvc.perform(post("/films/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(3))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.errors[0].index").value(1));
+        assertEquals(2, changeFeed.lastOffset());
+    }
+
+    @Test
+    public void popularFilmsAreOrderedByLikes() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            addFilm("Film " + i);
+            User user = new User();
+            user.setLogin("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            userStorage.add(user);
+        }
+        mockMvc.perform(put("/films/3/like/1")).andExpect(status().isOk());
+        mockMvc.perform(put("/films/3/like/2")).andExpect(status().isOk());
+        mockMvc.perform(put("/films/2/like/1")).andExpect(status().isOk());
+        mockMvc.perform(put("/films/4/like/1")).andExpect(status().isOk());
+        mockMvc.perform(put("/films/4/like/2")).andExpect(status().isOk());
+        mockMvc.perform(put("/films/4/like/3")).andExpect(status().isOk());
+        mockMvc.perform(delete("/films/4/like/3")).andExpect(status().isOk());
+        mockMvc.perform(delete("/films/4/like/2")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/films/popular").param("count", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[1].id").value(2))
+                .andExpect(jsonPath("$[2].id").value(4));
+        mockMvc.perform(get("/films/popular"))
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[3].id").value(1));
+    }
+
+    @Test
+    public void searchFindsFilmsByWordPrefixes() throws Exception {
+        addFilm("Матрица");
+        addFilm("Матрица: Перезагрузка");
+        addFilm("Ёлки");
+        addFilm("The Matrix");
+
+        mockMvc.perform(get("/films/search").param("query", "МАТР"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[1].id").value(2));
+        mockMvc.perform(get("/films/search").param("query", "матрица перезагр"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(2));
+        mockMvc.perform(get("/films/search").param("query", "елки"))
+                .andExpect(jsonPath("$[0].id").value(3));
+
+        Film renamed = new Film();
+        renamed.setId(4);
+        renamed.setName("Matrix Reloaded");
+        renamed.setDescription("Description");
+        renamed.setReleaseDate(LocalDate.of(2003, 5, 7));
+        renamed.setDuration(138);
+        mockMvc.perform(put("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper().writeValueAsString(renamed)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/films/search").param("query", "the"))
+                .andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/films/search").param("query", "reloaded"))
+                .andExpect(jsonPath("$[0].id").value(4));
+    }
+
+    @Test
+    public void unchangedFilmsAreAnsweredWithNotModified() throws Exception {
+        addFilm("First");
+        addFilm("Second");
+        String etag = mockMvc.perform(get("/films"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/films").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/films/1").header("If-None-Match", "\"1\""))
+                .andExpect(status().isNotModified());
+
+        Film renamed = new Film();
+        renamed.setId(1);
+        renamed.setName("Renamed");
+        renamed.setDescription("Description");
+        renamed.setReleaseDate(LocalDate.of(2000, 1, 1));
+        renamed.setDuration(100);
+        mockMvc.perform(put("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper().writeValueAsString(renamed)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(3));
+        addFilm("Third");
+
+        mockMvc.perform(get("/films").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+        mockMvc.perform(get("/films").param("since", "2"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Renamed"))
+                .andExpect(jsonPath("$[1].name").value("Third"))
+                .andExpect(jsonPath("$[1].version").value(4));
+    }
+
+    @Test
+    public void staleUpdatesAreRejected() throws Exception {
+        addFilm("Original");
+        Film first = new Film();
+        first.setId(1);
+        first.setName("First editor");
+        first.setDescription("Description");
+        first.setReleaseDate(LocalDate.of(2000, 1, 1));
+        first.setDuration(100);
+        mockMvc.perform(put("/films")
+                        .header("If-Match", "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper().writeValueAsString(first)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""));
+
+        Film second = new Film();
+        second.setId(1);
+        second.setName("Second editor");
+        second.setDescription("Description");
+        second.setReleaseDate(LocalDate.of(2000, 1, 1));
+        second.setDuration(100);
+        mockMvc.perform(put("/films")
+                        .header("If-Match", "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper().writeValueAsString(second)))
+                .andExpect(status().isPreconditionFailed());
+        second.setVersion(1);
+        mockMvc.perform(put("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper().writeValueAsString(second)))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(get("/films/1"))
+                .andExpect(jsonPath("$.name").value("First editor"))
+                .andExpect(jsonPath("$.version").value(2));
+    }
+
+    @Test
+    public void ifMatchAcceptsListOfVersions() throws Exception {
+        addFilm("Original");
+        Film film = new Film();
+        film.setId(1);
+        film.setName("Edited");
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        mockMvc.perform(put("/films")
+                        .header("If-Match", "\"7\", \"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper().writeValueAsString(film)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""));
+
+        mockMvc.perform(put("/films")
+                        .header("If-Match", "\"1\",W/\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper().writeValueAsString(film)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/films")
+                        .header("If-Match", "\"1\",\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper().writeValueAsString(film)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/films")
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper().writeValueAsString(film)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/films")
+                        .header("If-Match", "\"1\",\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper().writeValueAsString(film)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+        mockMvc.perform(put("/films")
+                        .header("If-Match", "\"1\",\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper().writeValueAsString(film)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void missingEntitiesReturnErrorResponse() throws Exception {
+        mockMvc.perform(get("/films/42"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Фильм с id 42 не найден"))
+                .andExpect(jsonPath("$.errors").doesNotExist());
+        addFilm("Film");
+        mockMvc.perform(put("/films/1/like/7"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Пользователь с id 7 не найден"));
+    }
+
+    private void addFilm(String name) throws Exception {
+        addFilm(name, LocalDate.of(2000, 1, 1), 100);
+    }
+
+    private void addFilm(String name, LocalDate releaseDate, int duration) throws Exception {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(releaseDate);
+        film.setDuration(duration);
+        mockMvc.perform(post("/films")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper().writeValueAsString(film)))
+                .andExpect(status().isCreated());
+    }
+
+    private static ObjectMapper objectMapper() {
+        return new ObjectMapper().registerModule(new JavaTimeModule());
+    }
+}
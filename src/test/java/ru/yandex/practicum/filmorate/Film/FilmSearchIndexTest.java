@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.Film;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.service.FilmSearchIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class FilmSearchIndexTest {
+
+    @Test
+    public void nameMatchesRankAboveDescriptionMatches() {
+        FilmSearchIndex index = new FilmSearchIndex();
+        index(index, 1, "Космос", "Фильм о путешествии");
+        index(index, 2, "Путешествие", "Фильм о космосе");
+        index(index, 3, "Дорога", "Путешествие через космос");
+
+        // Точное совпадение слова ценится выше совпадения по префиксу («космосе»)
+        assertEquals(List.of(1, 3, 2), index.search("космос", 10));
+        assertEquals(3, index.search("путешеств", 10).size());
+        assertEquals(List.of(2), index.search("путешеств", 1));
+        assertEquals(List.of(), index.search("космос драма", 10));
+    }
+
+    @Test
+    public void removedFilmDisappearsFromResults() {
+        FilmSearchIndex index = new FilmSearchIndex();
+        index(index, 1, "Солярис", "Станция на орбите");
+        index.index(1, () -> null);
+
+        assertEquals(List.of(), index.search("солярис", 10));
+        assertEquals(0, index.size());
+        assertEquals(0, index.termCount());
+    }
+
+    @Test
+    public void wordsDroppedByUpdateLeaveIndex() {
+        FilmSearchIndex index = new FilmSearchIndex();
+        index(index, 1, "Сталкер", "Зона");
+        index(index, 2, "Зеркало", "Зона");
+        index(index, 1, "Сталкер", "Комната");
+
+        assertEquals(List.of(2), index.search("зона", 10));
+        assertEquals(List.of(), index.search("комнаты", 10));
+        assertEquals(List.of(1), index.search("комн", 10));
+        assertEquals(4, index.termCount());
+
+        index(index, 2, "Зеркало", "Память");
+        assertEquals(List.of(), index.search("зон", 10));
+        assertEquals(4, index.termCount());
+    }
+
+    @Test
+    public void concurrentReindexingKeepsEveryFilmSearchable() throws Exception {
+        FilmSearchIndex index = new FilmSearchIndex();
+        int threads = 8;
+        int rounds = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t + 1;
+            futures.add(executor.submit(() -> {
+                // Все фильмы делят слово «общее», а «временное» постоянно появляется и исчезает
+                for (int i = 0; i < rounds; i++) {
+                    index(index, id, "Общее", i % 2 == 0 ? "Временное" : "Другое");
+                }
+                index(index, id, "Общее", "Итог");
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(threads, index.search("общее итог", 100).size());
+        assertEquals(List.of(), index.search("временное", 100));
+        assertEquals(2, index.termCount());
+    }
+
+    private static void index(FilmSearchIndex index, int id, String name, String description) {
+        Film film = new Film();
+        film.setId(id);
+        film.setName(name);
+        film.setDescription(description);
+        index.index(id, () -> film);
+    }
+}
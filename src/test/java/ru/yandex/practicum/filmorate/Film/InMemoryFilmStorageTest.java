@@ -0,0 +1,218 @@
+package ru.yandex.practicum.filmorate.Film;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.exception.VersionConflictException;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.storage.film.FilmQuery;
+import ru.yandex.practicum.storage.film.InMemoryFilmStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InMemoryFilmStorageTest {
+
+    private static final int THREADS = 8;
+    private static final int FILMS_PER_THREAD = 5_000;
+
+    @Test
+    public void concurrentAddsProduceUniqueIdsWithoutLostWrites() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        runConcurrently(thread -> {
+            for (int i = 0; i < FILMS_PER_THREAD; i++) {
+                storage.add(film("Film " + thread + "-" + i));
+            }
+        });
+
+        List<Film> films = storage.getAll();
+        assertEquals(THREADS * FILMS_PER_THREAD, films.size());
+        assertEquals(THREADS * FILMS_PER_THREAD, storage.size());
+        Set<Integer> ids = new HashSet<>();
+        for (Film film : films) {
+            assertTrue(ids.add(film.getId()), "Повторяющийся id " + film.getId());
+        }
+        for (int id = 1; id <= THREADS * FILMS_PER_THREAD; id++) {
+            assertTrue(ids.contains(id), "Пропущен id " + id);
+        }
+    }
+
+    @Test
+    public void concurrentUpdatesAreNotLost() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        for (int i = 0; i < THREADS * FILMS_PER_THREAD; i++) {
+            storage.add(film("Original"));
+        }
+        runConcurrently(thread -> {
+            for (int id = thread + 1; id <= THREADS * FILMS_PER_THREAD; id += THREADS) {
+                Film updated = film("Updated " + id);
+                updated.setId(id);
+                assertTrue(storage.update(updated).isPresent());
+            }
+        });
+
+        for (Film film : storage.getAll()) {
+            assertEquals("Updated " + film.getId(), film.getName());
+        }
+    }
+
+    @Test
+    public void compareAndSetUpdatesDoNotOverwriteEachOther() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        Film film = storage.add(film("Counter"));
+        int increments = 1_000;
+        runConcurrently(thread -> {
+            for (int i = 0; i < increments; ) {
+                Film current = storage.findById(film.getId()).orElseThrow();
+                Film next = film("Counter");
+                next.setId(current.getId());
+                next.setDuration(current.getDuration() + 1);
+                try {
+                    storage.update(next, current.getVersion());
+                    i++;
+                } catch (VersionConflictException e) {
+                    // Кто-то успел раньше — перечитываем и повторяем
+                }
+            }
+        });
+
+        Film result = storage.findById(film.getId()).orElseThrow();
+        assertEquals(film.getDuration() + THREADS * increments, result.getDuration());
+        assertEquals(1 + THREADS * increments, result.getVersion());
+    }
+
+    @Test
+    public void concurrentWritesToDifferentFilmsPublishEveryVersion() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        runConcurrently(thread -> {
+            for (int i = 0; i < FILMS_PER_THREAD; i++) {
+                Film added = storage.add(film("Film"));
+                Film updated = film("Updated");
+                updated.setId(added.getId());
+                storage.update(updated, added.getVersion());
+            }
+        });
+
+        int total = THREADS * FILMS_PER_THREAD;
+        assertEquals(2L * total, storage.version());
+        List<Film> changed = storage.getChangedSince(0, total + 1);
+        assertEquals(total, changed.size());
+        Set<Long> versions = new HashSet<>();
+        for (Film film : changed) {
+            assertEquals("Updated", film.getName());
+            assertTrue(versions.add(film.getVersion()), "Повторяющаяся версия " + film.getVersion());
+        }
+        for (int i = 1; i < changed.size(); i++) {
+            assertTrue(changed.get(i - 1).getVersion() < changed.get(i).getVersion());
+        }
+    }
+
+    @Test
+    public void durationIndexFollowsConcurrentUpdates() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        for (int i = 0; i < THREADS * FILMS_PER_THREAD; i++) {
+            storage.add(film("Film"));
+        }
+        runConcurrently(thread -> {
+            for (int id = thread + 1; id <= THREADS * FILMS_PER_THREAD; id += THREADS) {
+                Film updated = film("Film");
+                updated.setId(id);
+                updated.setDuration(id % 200 + 1);
+                storage.update(updated);
+            }
+        });
+
+        List<Film> films = storage.find(new FilmQuery(null, null, 50, 59, FilmQuery.Sort.DURATION, false, null,
+                THREADS * FILMS_PER_THREAD));
+        assertEquals(THREADS * FILMS_PER_THREAD / 20, films.size());
+        for (int i = 1; i < films.size(); i++) {
+            Film previous = films.get(i - 1);
+            Film current = films.get(i);
+            assertTrue(previous.getDuration() < current.getDuration()
+                    || previous.getDuration() == current.getDuration() && previous.getId() < current.getId());
+        }
+        assertTrue(storage.find(new FilmQuery(null, null, 100, 100, FilmQuery.Sort.ID, false, null, 10))
+                .stream().allMatch(film -> film.getDuration() == 100));
+    }
+
+    @Test
+    public void idOrderedPagesWithRangeMatchFullScan() {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        for (int i = 1; i <= 2_000; i++) {
+            Film film = film("Film " + i);
+            film.setDuration(i * 7919 % 200 + 1);
+            film.setReleaseDate(LocalDate.of(2000, 1, 1).plusDays(i * 31 % 500));
+            storage.add(film);
+        }
+        // Широкий диапазон быстрее обойти по id, узкий — по индексу; ответ от пути зависеть не должен
+        List<FilmQuery> queries = List.of(
+                new FilmQuery(null, null, 2, 200, FilmQuery.Sort.ID, false, null, 30),
+                new FilmQuery(null, null, 17, 17, FilmQuery.Sort.ID, false, null, 3),
+                new FilmQuery(LocalDate.of(2000, 2, 1), LocalDate.of(2000, 2, 3), null, null,
+                        FilmQuery.Sort.ID, true, null, 4),
+                new FilmQuery(LocalDate.of(2000, 1, 1), null, 50, 150, FilmQuery.Sort.ID, true, null, 100));
+        for (FilmQuery first : queries) {
+            List<Film> expected = storage.getAll().stream()
+                    .filter(first::matches)
+                    .sorted(first.descending()
+                            ? Comparator.comparingInt(Film::getId).reversed()
+                            : Comparator.comparingInt(Film::getId))
+                    .toList();
+            List<Film> paged = new ArrayList<>();
+            FilmQuery query = first;
+            List<Film> page;
+            while (!(page = storage.find(query)).isEmpty()) {
+                assertTrue(page.size() <= query.limit());
+                paged.addAll(page);
+                query = new FilmQuery(first.releasedFrom(), first.releasedTo(), first.minDuration(),
+                        first.maxDuration(), FilmQuery.Sort.ID, first.descending(),
+                        page.get(page.size() - 1).getId(), first.limit());
+            }
+            assertEquals(expected, paged, first.toString());
+        }
+    }
+
+    private static void runConcurrently(ThreadTask task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    task.run(thread);
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertTrue(failures.isEmpty(), "Ошибки в потоках: " + failures);
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
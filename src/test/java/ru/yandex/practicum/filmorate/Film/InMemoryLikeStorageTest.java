@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.Film;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.storage.like.InMemoryLikeStorage;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InMemoryLikeStorageTest {
+
+    @Test
+    public void repeatedLikeIsCountedOnce() {
+        InMemoryLikeStorage storage = new InMemoryLikeStorage();
+
+        assertTrue(storage.addLike(1, 1));
+        assertFalse(storage.addLike(1, 1));
+        assertFalse(storage.removeLike(1, 2));
+
+        assertEquals(1, storage.countLikes(1));
+        assertEquals(List.of(1), storage.getMostLiked(10));
+    }
+
+    @Test
+    public void rankingStaysConsistentUnderConcurrentLikes() throws Exception {
+        InMemoryLikeStorage storage = new InMemoryLikeStorage();
+        int films = 50;
+        int users = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int user = 1; user <= users; user++) {
+            int userId = user;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                // Фильм с id f получает лайки от пользователей с id, кратным f
+                for (int filmId = 1; filmId <= films; filmId++) {
+                    storage.addLike(filmId, userId);
+                    if (userId % filmId != 0) {
+                        storage.removeLike(filmId, userId);
+                    }
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        List<Integer> ranking = storage.getMostLiked(films);
+        assertEquals(films, ranking.size());
+        for (int i = 0; i < films; i++) {
+            assertEquals(i + 1, ranking.get(i));
+            assertEquals(users / (i + 1), storage.countLikes(i + 1));
+        }
+    }
+
+    @Test
+    public void similarUsersAreOrderedByCommonLikes() {
+        InMemoryLikeStorage storage = new InMemoryLikeStorage();
+        // У пользователя id общих лайков с пользователем 1 — id % 5
+        for (int userId = 2; userId <= 20_000; userId++) {
+            for (int filmId = 1; filmId <= userId % 5; filmId++) {
+                storage.addLike(filmId, userId);
+            }
+            storage.addLike(100 + userId % 7, userId);
+        }
+        for (int filmId = 1; filmId <= 5; filmId++) {
+            storage.addLike(filmId, 1);
+        }
+        storage.removeLike(2, 4);
+
+        assertArrayEquals(new int[]{1, 3, 4, 104}, storage.getLikedFilmIds(4));
+        assertArrayEquals(new int[]{9, 14, 19, 24, 29}, storage.getSimilarUsers(1, 5));
+        assertEquals(20_000 - 1 - 20_000 / 5, storage.getSimilarUsers(1, 100_000).length);
+        assertArrayEquals(new int[0], storage.getSimilarUsers(20_001, 5));
+    }
+}
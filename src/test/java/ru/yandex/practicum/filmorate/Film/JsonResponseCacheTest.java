@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.Film;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.controller.JsonResponseCache;
+import ru.yandex.practicum.model.Film;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    public void listMatchesJacksonOutputAndFollowsVersions() throws Exception {
+        JsonResponseCache cache = new JsonResponseCache(objectMapper, DataSize.ofMegabytes(1));
+        Film first = film(1, "First", 1);
+        Film second = film(2, "Second", 2);
+
+        assertEquals(objectMapper.writeValueAsString(List.of(first, second)), body(cache, List.of(first, second)));
+        assertEquals("[]", body(cache, List.of()));
+
+        Film renamed = film(1, "Renamed", 3);
+        assertEquals(objectMapper.writeValueAsString(List.of(renamed)), body(cache, List.of(renamed)));
+    }
+
+    @Test
+    public void memoryBudgetIsRespected() {
+        long budget = DataSize.ofKilobytes(64).toBytes();
+        JsonResponseCache cache = new JsonResponseCache(objectMapper, DataSize.ofBytes(budget));
+        List<Film> films = new ArrayList<>();
+        for (int i = 1; i <= 5_000; i++) {
+            films.add(film(i, "Film " + i, i));
+        }
+
+        cache.list(films);
+        cache.list(films.subList(0, 10));
+
+        assertTrue(cache.usedBytes() <= budget, "Занято " + cache.usedBytes() + " байт");
+    }
+
+    private String body(JsonResponseCache cache, List<Film> films) {
+        return new String(cache.list(films).getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static Film film(int id, String name, long version) {
+        Film film = new Film();
+        film.setId(id);
+        film.setVersion(version);
+        film.setName(name);
+        film.setDescription("Description");
+        film.setDuration(100);
+        return film;
+    }
+}
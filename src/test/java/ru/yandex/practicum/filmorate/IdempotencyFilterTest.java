@@ -0,0 +1,180 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.audit.AuditLog;
+import ru.yandex.practicum.audit.AuditProperties;
+import ru.yandex.practicum.controller.FilmController;
+import ru.yandex.practicum.controller.JsonResponseCache;
+import ru.yandex.practicum.feed.ChangeFeed;
+import ru.yandex.practicum.feed.FeedProperties;
+import ru.yandex.practicum.idempotency.IdempotencyCache;
+import ru.yandex.practicum.idempotency.IdempotencyFilter;
+import ru.yandex.practicum.idempotency.IdempotencyProperties;
+import ru.yandex.practicum.service.BatchImporter;
+import ru.yandex.practicum.service.FilmSearchIndex;
+import ru.yandex.practicum.service.FilmService;
+import ru.yandex.practicum.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.storage.like.InMemoryLikeStorage;
+import ru.yandex.practicum.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.validation.ReflectiveEntityValidator;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class IdempotencyFilterTest {
+
+    private static final String FILM = "{\"name\":\"Film\",\"description\":\"Description\","
+            + "\"releaseDate\":\"2000-01-01\",\"duration\":100}";
+
+    private final InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+    private AuditLog auditLog;
+    private ChangeFeed changeFeed;
+
+    @AfterEach
+    public void tearDown() {
+        // Контроллер создают не все тесты
+        if (changeFeed != null) {
+            changeFeed.close();
+            auditLog.close();
+        }
+    }
+
+    @Test
+    public void retryWithSameKeyReturnsFirstResponse() throws Exception {
+        MockMvc mockMvc = films(properties(16, Duration.ofHours(1)));
+
+        String first = addFilm(mockMvc, "key-1")
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER))
+                .andReturn().getResponse().getContentAsString();
+        addFilm(mockMvc, "key-1")
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().json(first, true));
+        assertEquals(1, filmStorage.getAll().size());
+
+        addFilm(mockMvc, "key-2").andExpect(status().isCreated()).andExpect(jsonPath("$.id").value(2));
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(FILM))
+                .andExpect(status().isCreated());
+        assertEquals(3, filmStorage.getAll().size());
+    }
+
+    @Test
+    public void keyIsBoundToClientAndBody() throws Exception {
+        MockMvc mockMvc = films(properties(16, Duration.ofHours(1)));
+
+        addFilm(mockMvc, "key").andExpect(status().isCreated());
+        mockMvc.perform(post("/films").header(IdempotencyFilter.KEY_HEADER, "key")
+                        .contentType(MediaType.APPLICATION_JSON).content(FILM.replace("Film", "Other")))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(1, filmStorage.getAll().size());
+
+        mockMvc.perform(post("/films").header(IdempotencyFilter.KEY_HEADER, "key")
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.2");
+                            return request;
+                        })
+                        .contentType(MediaType.APPLICATION_JSON).content(FILM))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, filmStorage.getAll().size());
+    }
+
+    @Test
+    public void failedRequestIsNotRemembered() throws Exception {
+        MockMvc mockMvc = films(properties(16, Duration.ofHours(1)));
+
+        mockMvc.perform(post("/films").header(IdempotencyFilter.KEY_HEADER, "key")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"\"}"))
+                .andExpect(status().isBadRequest());
+        addFilm(mockMvc, "key").andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        addFilm(mockMvc, "").andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void oversizedBodyIsRejectedAndBatchIsNotBuffered() throws Exception {
+        IdempotencyProperties properties = properties(16, Duration.ofHours(1));
+        properties.setMaxBodySize(DataSize.ofBytes(FILM.length()));
+        MockMvc mockMvc = films(properties);
+
+        addFilm(mockMvc, "key").andExpect(status().isCreated());
+        mockMvc.perform(post("/films").header(IdempotencyFilter.KEY_HEADER, "large")
+                        .contentType(MediaType.APPLICATION_JSON).content(FILM + " "))
+                .andExpect(status().isPayloadTooLarge());
+        assertEquals(1, filmStorage.getAll().size());
+
+        // Пакет читается потоком и ключом не кешируется: повтор выполняется заново
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/films/batch").header(IdempotencyFilter.KEY_HEADER, "batch")
+                            .contentType(MediaType.APPLICATION_JSON).content("[" + FILM + "," + FILM + "]"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        }
+        assertEquals(5, filmStorage.getAll().size());
+    }
+
+    @Test
+    public void cacheEvictsOldestAndExpiredKeys() {
+        IdempotencyCache cache = new IdempotencyCache(properties(2, Duration.ofSeconds(1)));
+        long now = 0;
+        for (String key : new String[]{"a", "b", "c"}) {
+            IdempotencyCache.Entry entry = new IdempotencyCache.Entry(key, new byte[0], now);
+            assertNull(cache.putIfAbsent(key, entry));
+            entry.complete(201, null, new byte[0]);
+        }
+        assertEquals(2, cache.size());
+        assertNull(cache.putIfAbsent("a", new IdempotencyCache.Entry("a", new byte[0], now)));
+        assertNotNull(cache.putIfAbsent("c", new IdempotencyCache.Entry("c", new byte[0], now)));
+
+        long later = now + Duration.ofSeconds(2).toNanos();
+        assertNull(cache.putIfAbsent("c", new IdempotencyCache.Entry("c", new byte[0], later)));
+    }
+
+    private MockMvc films(IdempotencyProperties properties) {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        FilmService filmService = new FilmService(filmStorage, new InMemoryUserStorage(),
+                new InMemoryLikeStorage(), new BatchImporter(objectMapper,
+                new ReflectiveEntityValidator(Validation.buildDefaultValidatorFactory().getValidator())),
+                new FilmSearchIndex());
+        JsonResponseCache jsonCache = new JsonResponseCache(objectMapper, DataSize.ofMegabytes(1));
+        auditLog = new AuditLog(new AuditProperties());
+        changeFeed = new ChangeFeed(new FeedProperties(), jsonCache::encode);
+        FilmController controller = new FilmController(filmService, objectMapper, auditLog, jsonCache, changeFeed);
+        return MockMvcBuilders.standaloneSetup(controller)
+                .addFilters(new IdempotencyFilter(new IdempotencyCache(properties), objectMapper,
+                        properties.getMaxBodySize()))
+                .build();
+    }
+
+    private static ResultActions addFilm(MockMvc mockMvc, String key) throws Exception {
+        return mockMvc.perform(post("/films").header(IdempotencyFilter.KEY_HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON).content(FILM));
+    }
+
+    private static IdempotencyProperties properties(int capacity, Duration ttl) {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setCapacity(capacity);
+        properties.setTtl(ttl);
+        return properties;
+    }
+}
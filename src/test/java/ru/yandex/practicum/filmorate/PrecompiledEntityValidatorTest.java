@@ -0,0 +1,112 @@
+package ru.yandex.practicum.filmorate;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.validation.DayClock;
+import ru.yandex.practicum.validation.EntityValidator;
+import ru.yandex.practicum.validation.PrecompiledEntityValidator;
+import ru.yandex.practicum.validation.ReflectiveEntityValidator;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PrecompiledEntityValidatorTest {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final EntityValidator reflective = new ReflectiveEntityValidator(validator);
+    private final EntityValidator precompiled = new PrecompiledEntityValidator(validator, DayClock.SYSTEM);
+
+    @Test
+    public void filmErrorsMatchBeanValidation() {
+        LocalDate today = LocalDate.now();
+        for (String name : Arrays.asList(null, "", "  ", "Name")) {
+            for (String description : Arrays.asList(null, "", "\t", "d".repeat(200), "d".repeat(201))) {
+                for (LocalDate releaseDate : Arrays.asList(null, LocalDate.of(1895, 12, 27),
+                        LocalDate.of(1895, 12, 28), today, today.plusDays(1))) {
+                    for (int duration : new int[]{-1, 0, 1}) {
+                        Film film = new Film();
+                        film.setName(name);
+                        film.setDescription(description);
+                        film.setReleaseDate(releaseDate);
+                        film.setDuration(duration);
+                        assertEquals(reflective.validate(film), precompiled.validate(film), film.toString());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void userErrorsMatchBeanValidation() {
+        LocalDate today = LocalDate.now();
+        for (String email : Arrays.asList(null, "", "plain", "a@b", "a@b.c", "a b@c.d", "x@-bad-.com", "@b.c")) {
+            for (String login : Arrays.asList(null, "login", "with space", "tab\tbed", "line\n")) {
+                for (LocalDate birthday : Arrays.asList(null, today.minusDays(1), today, today.plusDays(1))) {
+                    User user = new User();
+                    user.setEmail(email);
+                    user.setLogin(login);
+                    user.setBirthday(birthday);
+                    assertEquals(reflective.validate(user), precompiled.validate(user), user.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void blankValueReportsNotBlankEvenIfOtherConstraintsFail() {
+        User user = new User();
+        user.setEmail(" ");
+        user.setLogin("");
+        assertEquals(Map.of("email", "Электронная почта не может быть пустой", "login", "Логин не может быть пустым"),
+                precompiled.validate(user));
+    }
+
+    @Test
+    public void dayClockMovesToNextDayAtMidnight() {
+        ZoneId zone = ZoneOffset.ofHours(3);
+        MutableClock clock = new MutableClock(Instant.parse("2024-03-01T20:59:59Z"), zone);
+        DayClock dayClock = new DayClock(clock);
+        assertEquals(LocalDate.of(2024, 3, 1), dayClock.today());
+
+        clock.instant = Instant.parse("2024-03-01T21:00:00Z");
+        assertEquals(LocalDate.of(2024, 3, 2), dayClock.today());
+
+        clock.instant = Instant.parse("2024-02-29T12:00:00Z");
+        assertEquals(LocalDate.of(2024, 2, 29), dayClock.today());
+    }
+
+    private static final class MutableClock extends Clock {
+        private final ZoneId zone;
+        private Instant instant;
+
+        MutableClock(Instant instant, ZoneId zone) {
+            this.instant = instant;
+            this.zone = zone;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new MutableClock(instant, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
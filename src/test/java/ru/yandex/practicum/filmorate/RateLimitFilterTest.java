@@ -0,0 +1,183 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.audit.AuditLog;
+import ru.yandex.practicum.audit.AuditProperties;
+import ru.yandex.practicum.controller.FilmController;
+import ru.yandex.practicum.controller.JsonResponseCache;
+import ru.yandex.practicum.feed.ChangeFeed;
+import ru.yandex.practicum.feed.FeedProperties;
+import ru.yandex.practicum.ratelimit.RateLimitFilter;
+import ru.yandex.practicum.ratelimit.RateLimitProperties;
+import ru.yandex.practicum.ratelimit.RateLimiter;
+import ru.yandex.practicum.ratelimit.TokenBucket;
+import ru.yandex.practicum.service.BatchImporter;
+import ru.yandex.practicum.service.FilmSearchIndex;
+import ru.yandex.practicum.service.FilmService;
+import ru.yandex.practicum.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.storage.like.InMemoryLikeStorage;
+import ru.yandex.practicum.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.validation.ReflectiveEntityValidator;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class RateLimitFilterTest {
+
+    private static final String FILM = "{\"name\":\"Film\",\"description\":\"Description\","
+            + "\"releaseDate\":\"2000-01-01\",\"duration\":100}";
+
+    private AuditLog auditLog;
+    private ChangeFeed changeFeed;
+
+    @AfterEach
+    public void tearDown() {
+        // Контроллер создают не все тесты
+        if (changeFeed != null) {
+            changeFeed.close();
+            auditLog.close();
+        }
+    }
+
+    @Test
+    public void bucketAllowsBurstThenRefills() {
+        TokenBucket bucket = new TokenBucket(3, 1);
+        long now = 1_000;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(now));
+        }
+        assertEquals(TimeUnit.SECONDS.toNanos(1), bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now + TimeUnit.SECONDS.toNanos(1)));
+        assertTrue(bucket.tryAcquire(now + TimeUnit.SECONDS.toNanos(1)) > 0);
+    }
+
+    @Test
+    public void concurrentClientsGetExactlyCapacityTokens() throws Exception {
+        TokenBucket bucket = new TokenBucket(1_000, 0.001);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        long now = System.nanoTime();
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if (bucket.tryAcquire(now) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(1_000, granted.get());
+    }
+
+    @Test
+    public void hammeringClientIsLimitedWithoutAffectingOthers() throws Exception {
+        MockMvc mockMvc = filmsWith(rule(List.of("POST", "PUT"), 2, 0.01, 0));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(FILM))
+                    .andExpect(status().isCreated());
+        }
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(FILM))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "100"));
+        mockMvc.perform(get("/films")).andExpect(status().isOk());
+        mockMvc.perform(post("/films").contentType(MediaType.APPLICATION_JSON).content(FILM)
+                        .with(request -> {
+                            request.setRemoteAddr("10.0.0.2");
+                            return request;
+                        }))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    public void requestsOverConcurrencyLimitAreShed() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(List.of(new RateLimiter("writes",
+                rule(List.of(), 1_000, 1_000, 2), 100, new SimpleMeterRegistry())), new ObjectMapper());
+        CountDownLatch inside = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                try {
+                    filter.doFilter(new MockHttpServletRequest("POST", "/films"), new MockHttpServletResponse(),
+                            (request, response) -> {
+                                inside.countDown();
+                                try {
+                                    release.await();
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                            });
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        assertTrue(inside.await(10, TimeUnit.SECONDS));
+
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/films"), shed, (request, response) -> {
+        });
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader("Retry-After"));
+
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        MockHttpServletResponse accepted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/films"), accepted, (request, response) -> {
+        });
+        assertEquals(200, accepted.getStatus());
+    }
+
+    private MockMvc filmsWith(RateLimitProperties.Rule rule) {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        FilmService filmService = new FilmService(new InMemoryFilmStorage(), new InMemoryUserStorage(),
+                new InMemoryLikeStorage(), new BatchImporter(objectMapper,
+                new ReflectiveEntityValidator(Validation.buildDefaultValidatorFactory().getValidator())),
+                new FilmSearchIndex());
+        JsonResponseCache jsonCache = new JsonResponseCache(objectMapper, DataSize.ofMegabytes(1));
+        auditLog = new AuditLog(new AuditProperties());
+        changeFeed = new ChangeFeed(new FeedProperties(), jsonCache::encode);
+        FilmController controller = new FilmController(filmService, objectMapper, auditLog, jsonCache, changeFeed);
+        RateLimiter limiter = new RateLimiter("films", rule, 100, new SimpleMeterRegistry());
+        return MockMvcBuilders.standaloneSetup(controller)
+                .addFilters(new RateLimitFilter(List.of(limiter), objectMapper))
+                .build();
+    }
+
+    private static RateLimitProperties.Rule rule(List<String> methods, int capacity, double refillPerSecond,
+                                                 int maxConcurrent) {
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setMethods(methods);
+        rule.setPath("/films/**");
+        rule.setCapacity(capacity);
+        rule.setRefillPerSecond(refillPerSecond);
+        rule.setMaxConcurrent(maxConcurrent);
+        return rule;
+    }
+}
@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.FilmorateApplication;
+import ru.yandex.practicum.shard.ShardMap;
+import ru.yandex.practicum.storage.IdRange;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShardingTest {
+
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final List<ConfigurableApplicationContext> NODES = new ArrayList<>();
+    private static final List<String> URLS = new ArrayList<>();
+
+    @BeforeAll
+    public static void startNodes() throws IOException {
+        for (int i = 0; i < 2; i++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                URLS.add("http://localhost:" + socket.getLocalPort());
+            }
+        }
+        for (int i = 0; i < URLS.size(); i++) {
+            NODES.add(new SpringApplicationBuilder(FilmorateApplication.class).run(
+                    "--server.port=" + URI.create(URLS.get(i)).getPort(),
+                    "--spring.jmx.enabled=false",
+                    "--filmorate.shard.enabled=true",
+                    "--filmorate.shard.index=" + i,
+                    "--filmorate.shard.nodes=" + String.join(",", URLS)));
+        }
+    }
+
+    @AfterAll
+    public static void stopNodes() {
+        NODES.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    public void rangesCoverAllIdsWithoutOverlap() {
+        ShardMap shardMap = new ShardMap(List.of("http://localhost:1", "http://localhost:2", "http://localhost:3"), 1);
+        assertEquals(new IdRange(1, 715_827_882), shardMap.range(0));
+        assertEquals(new IdRange(715_827_883, 1_431_655_764), shardMap.localRange());
+        assertEquals(new IdRange(1_431_655_765, Integer.MAX_VALUE), shardMap.range(2));
+        for (int shard = 0; shard < shardMap.size(); shard++) {
+            IdRange range = shardMap.range(shard);
+            assertEquals(shard, shardMap.ownerOf(range.first()));
+            assertEquals(shard, shardMap.ownerOf(range.last()));
+        }
+    }
+
+    @Test
+    public void requestsAreServedByOwningNode() throws Exception {
+        int first = id(send("POST", 0, "/films", film(0, "Первый")));
+        int second = id(send("POST", 1, "/films", film(0, "Второй")));
+        assertTrue(new IdRange(1, Integer.MAX_VALUE / 2).contains(first));
+        assertTrue(second > Integer.MAX_VALUE / 2);
+
+        HttpResponse<String> remote = send("GET", 0, "/films/" + second, null);
+        assertEquals(200, remote.statusCode());
+        assertEquals("Второй", MAPPER.readTree(remote.body()).get("name").asText());
+        assertTrue(remote.headers().firstValue("ETag").isPresent());
+
+        assertEquals(200, send("PUT", 0, "/films", film(second, "Второй, исправленный")).statusCode());
+        assertEquals("Второй, исправленный",
+                MAPPER.readTree(send("GET", 1, "/films/" + second, null).body()).get("name").asText());
+        assertEquals(404, send("GET", 1, "/films/" + (second + 1000), null).statusCode());
+
+        List<Integer> all = new ArrayList<>();
+        MAPPER.readTree(send("GET", 1, "/films", null).body()).forEach(film -> all.add(film.get("id").asInt()));
+        assertTrue(all.indexOf(first) >= 0 && all.indexOf(first) < all.indexOf(second), all.toString());
+        assertEquals(all.stream().sorted().toList(), all);
+        JsonNode page = MAPPER.readTree(send("GET", 0, "/films?after=" + first + "&limit=1", null).body());
+        assertEquals(1, page.size());
+        assertEquals(all.get(all.indexOf(first) + 1), page.get(0).get("id").asInt());
+        assertEquals(400, send("GET", 0, "/films?sort=duration", null).statusCode());
+        assertEquals(413, send("PUT", 0, "/films", film(second, "x".repeat(70_000))).statusCode());
+        assertEquals(413, send("POST", 0, "/users", user(0, "x".repeat(70_000), "large@example.com")).statusCode());
+    }
+
+    @Test
+    public void loginsAreUniqueAcrossNodesAndLinksStayOnOneNode() throws Exception {
+        int local = id(send("POST", 0, "/users", user(0, "shared", "shared@example.com")));
+        assertEquals(409, send("POST", 1, "/users", user(0, "shared", "other@example.com")).statusCode());
+        assertEquals(409, send("POST", 1, "/users", user(0, "other", " SHARED@example.com")).statusCode());
+        int remote = id(send("POST", 1, "/users", user(0, "other", "other@example.com")));
+        HttpResponse<String> renamed = send("PUT", 0, "/users", user(remote, "shared", "other@example.com"));
+        assertEquals(409, renamed.statusCode());
+        assertEquals("Логин shared уже используется", MAPPER.readTree(renamed.body()).get("message").asText());
+        assertEquals(200, send("PUT", 0, "/users", user(remote, "renamed", "other@example.com")).statusCode());
+
+        int film = id(send("POST", 0, "/films", film(0, "Для лайков")));
+        assertEquals(200, send("PUT", 1, "/films/" + film + "/like/" + local, null).statusCode());
+        // Тело пересылается владельцу потоком, а не собирается в память
+        assertEquals(200, send("DELETE", 1, "/films/" + film + "/like/" + local, "{}").statusCode());
+        assertEquals(200, send("PUT", 1, "/films/" + film + "/like/" + local, null).statusCode());
+        assertEquals(501, send("PUT", 0, "/films/" + film + "/like/" + remote, null).statusCode());
+        assertEquals(501, send("PUT", 0, "/users/" + local + "/friends/" + remote, null).statusCode());
+        assertEquals(501, send("POST", 0, "/users/batch", "[]").statusCode());
+    }
+
+    private static HttpResponse<String> send(String method, int node, String path, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(URLS.get(node) + path))
+                .method(method, body == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        return CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int id(HttpResponse<String> response) throws IOException {
+        assertEquals(201, response.statusCode(), response.body());
+        return MAPPER.readTree(response.body()).get("id").asInt();
+    }
+
+    private static String user(int id, String login, String email) {
+        return "{" + (id == 0 ? "" : "\"id\":" + id + ",") + "\"login\":\"" + login + "\",\"email\":\"" + email
+                + "\",\"birthday\":\"2000-01-01\"}";
+    }
+
+    private static String film(int id, String name) {
+        return "{" + (id == 0 ? "" : "\"id\":" + id + ",") + "\"name\":\"" + name + "\",\"description\":\"Описание\","
+                + "\"releaseDate\":\"2000-01-01\",\"duration\":100}";
+    }
+}
@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.Storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.storage.persistence.BinarySnapshotFormat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BinarySnapshotFormatTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void filmsAndUsersRoundTrip() throws Exception {
+        Film film = new Film();
+        film.setId(7);
+        film.setVersion(12);
+        film.setName("Сталкер");
+        film.setDescription("Фильм Андрея Тарковского");
+        film.setReleaseDate(LocalDate.of(1979, 5, 25));
+        film.setDuration(163);
+        Film sameName = new Film();
+        sameName.setId(8);
+        sameName.setName("Сталкер");
+        sameName.setDescription("Ремейк");
+        sameName.setDuration(90);
+        User user = new User();
+        user.setId(3);
+        user.setEmail("user@example.com");
+        user.setLogin("user");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+
+        Path file = directory.resolve("snapshot.bin");
+        BinarySnapshotFormat format = new BinarySnapshotFormat();
+        format.write(file, Stream.of(film, sameName), Stream.of(user));
+        List<Film> films = new ArrayList<>();
+        List<User> users = new ArrayList<>();
+        format.read(file, films::add, users::add);
+
+        assertEquals(List.of(film, sameName), films);
+        assertEquals(List.of(user), users);
+        assertNull(films.get(1).getReleaseDate());
+        assertNull(users.get(0).getName());
+        assertSame(films.get(0).getName(), films.get(1).getName());
+    }
+
+    @Test
+    public void snapshotWithoutVersionsIsStillReadable() throws Exception {
+        byte[] name = "Солярис".getBytes(StandardCharsets.UTF_8);
+        int poolOffset = 32 + 20;
+        ByteBuffer buffer = ByteBuffer.allocate(poolOffset + 12 + name.length)
+                .putInt(0x464D5253).putInt(1).putInt(1).putInt(0).putLong(poolOffset).putLong(0)
+                .putInt(5).putInt(1000).putInt(167).putInt(0).putInt(-1)
+                .putInt(1).putInt(0).putInt(name.length).put(name);
+        Path file = directory.resolve("legacy.bin");
+        Files.write(file, buffer.array());
+
+        List<Film> films = new ArrayList<>();
+        new BinarySnapshotFormat().read(file, films::add, user -> {
+        });
+
+        assertEquals(1, films.size());
+        assertEquals(5, films.get(0).getId());
+        assertEquals(0, films.get(0).getVersion());
+        assertEquals(LocalDate.ofEpochDay(1000), films.get(0).getReleaseDate());
+        assertEquals(167, films.get(0).getDuration());
+        assertEquals("Солярис", films.get(0).getName());
+        assertNull(films.get(0).getDescription());
+    }
+
+    @Test
+    public void writerRefusesSnapshotAboveSizeLimit() {
+        Film film = new Film();
+        film.setId(1);
+        film.setName("x".repeat(100));
+        // 32 байта заголовка и 28 на фильм помещаются, пул строк уже нет
+        BinarySnapshotFormat format = new BinarySnapshotFormat(100);
+
+        assertThrows(BinarySnapshotFormat.TooLargeException.class,
+                () -> format.write(directory.resolve("large.bin"), Stream.of(film), Stream.empty()));
+        assertThrows(BinarySnapshotFormat.TooLargeException.class,
+                () -> format.write(directory.resolve("many.bin"), Stream.of(new Film(), new Film(), new Film()),
+                        Stream.empty()));
+    }
+}
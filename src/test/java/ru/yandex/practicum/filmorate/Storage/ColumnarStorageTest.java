@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.Storage;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.storage.StorageLayout;
+import ru.yandex.practicum.storage.film.FilmQuery;
+import ru.yandex.practicum.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ColumnarStorageTest {
+
+    @Test
+    public void columnarStorageReturnsSameRecordsAsObjectStorage() {
+        InMemoryFilmStorage objects = new InMemoryFilmStorage(StorageLayout.OBJECTS);
+        InMemoryFilmStorage columnar = new InMemoryFilmStorage(StorageLayout.COLUMNAR);
+        // Больше одной страницы столбцов
+        for (int i = 1; i <= 10_000; i++) {
+            objects.add(film(i, i % 7 == 0 ? null : LocalDate.of(1950, 1, 1).plusDays(i)));
+            columnar.add(film(i, i % 7 == 0 ? null : LocalDate.of(1950, 1, 1).plusDays(i)));
+        }
+
+        assertEquals(objects.size(), columnar.size());
+        assertEquals(objects.getAll(), columnar.getAll());
+        assertEquals(objects.getPage(4090, 20), columnar.getPage(4090, 20));
+        FilmQuery query = new FilmQuery(null, null, 100, 110, FilmQuery.Sort.ID, true, 9000, 50);
+        assertEquals(objects.find(query), columnar.find(query));
+        assertNull(columnar.findById(10_001).orElse(null));
+        assertNull(columnar.findById(-1).orElse(null));
+    }
+
+    @Test
+    public void userWithoutNameKeepsLoginAsName() {
+        InMemoryUserStorage storage = new InMemoryUserStorage(StorageLayout.COLUMNAR);
+        User user = new User();
+        user.setEmail("user@example.com");
+        user.setLogin("login");
+        user.setName("login");
+        storage.add(user);
+
+        User stored = storage.findById(user.getId()).orElseThrow();
+        assertEquals(user, stored);
+        assertNull(stored.getBirthday());
+    }
+
+    @Test
+    public void readersNeverSeeHalfWrittenFilm() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage(StorageLayout.COLUMNAR);
+        Film film = storage.add(film(1, LocalDate.of(1950, 1, 1).plusDays(1)));
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<String> torn = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 3; t++) {
+            executor.execute(() -> {
+                while (running.get()) {
+                    Film read = storage.findById(film.getId()).orElseThrow();
+                    // Все поля записи выводятся из одного числа
+                    if (!read.getName().equals("Film " + read.getDuration())
+                            || !read.getReleaseDate().equals(LocalDate.of(1950, 1, 1).plusDays(read.getDuration()))) {
+                        torn.add(read.toString());
+                    }
+                }
+            });
+        }
+        executor.execute(() -> {
+            for (int i = 2; i <= 200_000; i++) {
+                Film updated = film(i, LocalDate.of(1950, 1, 1).plusDays(i));
+                updated.setId(film.getId());
+                storage.update(updated);
+            }
+            running.set(false);
+        });
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertTrue(torn.isEmpty(), "Несогласованные чтения: " + torn.subList(0, Math.min(torn.size(), 5)));
+        assertEquals(200_000, storage.findById(film.getId()).orElseThrow().getDuration());
+    }
+
+    private static Film film(int i, LocalDate releaseDate) {
+        Film film = new Film();
+        film.setName("Film " + i);
+        film.setDescription("Description " + i);
+        film.setReleaseDate(releaseDate);
+        film.setDuration(i);
+        return film;
+    }
+}
@@ -0,0 +1,215 @@
+package ru.yandex.practicum.filmorate.Storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.model.Film;
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.storage.persistence.BinarySnapshotFormat;
+import ru.yandex.practicum.storage.persistence.DurableFilmStorage;
+import ru.yandex.practicum.storage.persistence.DurableUserStorage;
+import ru.yandex.practicum.storage.persistence.PersistenceManager;
+import ru.yandex.practicum.storage.persistence.PersistenceProperties;
+import ru.yandex.practicum.storage.persistence.WriteAheadLog;
+import ru.yandex.practicum.storage.user.InMemoryUserStorage;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PersistenceManagerTest {
+
+    @TempDir
+    Path directory;
+
+    private Node node;
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        node.manager.stop();
+    }
+
+    @Test
+    public void addsAndUpdatesSurviveRestart() throws Exception {
+        node = start();
+        Film film = node.films.add(film("Original"));
+        node.films.add(film("Second"));
+        Film renamed = film("Renamed");
+        renamed.setId(film.getId());
+        node.films.update(renamed);
+        node.users.add(user("login"));
+
+        node = restart();
+
+        assertEquals(List.of("Renamed", "Second"), node.films.getAll().stream().map(Film::getName).toList());
+        assertEquals("login", node.users.findById(1).orElseThrow().getLogin());
+        assertEquals(3, node.films.version());
+        assertEquals(3, node.films.add(film("Third")).getId());
+        assertEquals(4, node.films.version());
+    }
+
+    @Test
+    public void snapshotReplacesCoveredLogSegments() throws Exception {
+        node = start();
+        for (int i = 0; i < 100; i++) {
+            node.films.add(film("Film " + i));
+        }
+        node.manager.snapshot();
+        node.films.add(film("After snapshot"));
+
+        assertEquals(1, WriteAheadLog.segments(directory).size());
+        node = restart();
+
+        assertEquals(101, node.films.size());
+        assertEquals("After snapshot", node.films.findById(101).orElseThrow().getName());
+        assertEquals(101, node.films.findById(101).orElseThrow().getVersion());
+        assertEquals(List.of(101), node.films.getChangedSince(100, 10).stream().map(Film::getId).toList());
+    }
+
+    @Test
+    public void snapshotInPreviousFormatIsStillRecovered() throws Exception {
+        node = start(PersistenceProperties.SnapshotType.JSON);
+        node.films.add(film("Json"));
+        node.manager.snapshot();
+        node.manager.stop();
+
+        node = start(PersistenceProperties.SnapshotType.BINARY);
+        node.films.add(film("Binary"));
+        node.manager.snapshot();
+        node = restart();
+
+        assertEquals(List.of("Json", "Binary"), node.films.getAll().stream().map(Film::getName).toList());
+    }
+
+    @Test
+    public void snapshotTooLargeForBinaryFormatIsWrittenAsJson() throws Exception {
+        node = start(PersistenceProperties.SnapshotType.BINARY, new BinarySnapshotFormat(1024));
+        for (int i = 0; i < 100; i++) {
+            node.films.add(film("Film " + i));
+        }
+        node.manager.snapshot();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of("snapshot-000000000002.json"), files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith("snapshot-")).toList());
+        }
+        assertEquals(1, WriteAheadLog.segments(directory).size());
+        node = restart();
+        assertEquals(100, node.films.size());
+    }
+
+    @Test
+    public void tornLastRecordIsDiscarded() throws Exception {
+        node = start();
+        node.films.add(film("Надёжный"));
+        node.manager.stop();
+        List<Path> segments = WriteAheadLog.segments(directory);
+        Files.writeString(segments.get(segments.size() - 1),
+                "{\"kind\":\"FILM\",\"film\":{\"id\":2,\"name\":\"Сломан", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        node = start();
+        assertEquals(1, node.films.size());
+
+        // Обрезанный сегмент больше не последний, но журнал по-прежнему читается
+        node.films.add(film("After restart"));
+        node = restart();
+        node = restart();
+
+        assertEquals(List.of("Надёжный", "After restart"),
+                node.films.getAll().stream().map(Film::getName).toList());
+    }
+
+    @Test
+    public void changeIsNotVisibleWhenJournalWriteFails() throws Exception {
+        node = start();
+        Film film = node.films.add(film("Original"));
+        node.users.add(user("login"));
+        node.manager.stop();
+
+        Film renamed = film("Renamed");
+        renamed.setId(film.getId());
+        assertThrows(RuntimeException.class, () -> node.films.update(renamed));
+        assertThrows(RuntimeException.class, () -> node.films.add(film("Lost")));
+        assertThrows(RuntimeException.class, () -> node.users.add(user("lost")));
+
+        assertEquals(List.of("Original"), node.films.getAll().stream().map(Film::getName).toList());
+        assertEquals(List.of(), node.films.getChangedSince(1, 10));
+        assertEquals(1, node.users.size());
+        assertFalse(node.users.isLoginTaken("lost"));
+    }
+
+    @Test
+    public void batchAddsAreJournaled() throws Exception {
+        node = start();
+        node.films.addAll(List.of(film("First"), film("Second")));
+        Film renamed = film("Renamed");
+        renamed.setId(2);
+        node.films.update(renamed);
+
+        node = restart();
+
+        assertEquals(List.of("First", "Renamed"), node.films.getAll().stream().map(Film::getName).toList());
+        assertEquals(3, node.films.version());
+    }
+
+    private Node restart() throws Exception {
+        node.manager.stop();
+        return start();
+    }
+
+    private Node start() throws Exception {
+        return start(PersistenceProperties.SnapshotType.BINARY);
+    }
+
+    private Node start(PersistenceProperties.SnapshotType snapshotFormat) throws Exception {
+        return start(snapshotFormat, new BinarySnapshotFormat());
+    }
+
+    private Node start(PersistenceProperties.SnapshotType snapshotFormat, BinarySnapshotFormat binary)
+            throws Exception {
+        PersistenceProperties properties = new PersistenceProperties();
+        properties.setSnapshotFormat(snapshotFormat);
+        properties.setDirectory(directory);
+        properties.setSnapshotInterval(Duration.ZERO);
+        InMemoryFilmStorage films = new InMemoryFilmStorage();
+        InMemoryUserStorage users = new InMemoryUserStorage();
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        PersistenceManager manager = new PersistenceManager(films, users, objectMapper, properties, binary);
+        manager.start();
+        return new Node(manager, new DurableFilmStorage(films, manager), new DurableUserStorage(users, manager));
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(login + "@example.com");
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    private record Node(PersistenceManager manager, DurableFilmStorage films, DurableUserStorage users) {
+    }
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.Storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.storage.persistence.WriteAheadLog;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WriteAheadLogTest {
+
+    private static final byte[] LINE = "{}\n".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void appendsRacingCloseAllComplete() throws Exception {
+        WriteAheadLog wal = new WriteAheadLog(directory, 1);
+        int threads = 8;
+        List<CompletableFuture<Void>> futures = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                started.countDown();
+                for (int i = 0; i < 5_000; i++) {
+                    futures.add(wal.append(LINE));
+                }
+            });
+        }
+        started.await();
+        wal.close();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        for (CompletableFuture<Void> future : futures) {
+            // Подтверждена или отклонена, но не висит
+            try {
+                future.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    public void writerFailureRejectsPendingAndLaterAppends() throws Exception {
+        WriteAheadLog wal = new WriteAheadLog(directory, 1);
+        try {
+            // Отсутствующая строка роняет поток записи непредвиденным NullPointerException
+            CompletableFuture<Void> broken = wal.append(null);
+            assertThrows(ExecutionException.class, () -> broken.get(10, TimeUnit.SECONDS));
+
+            CompletableFuture<Void> late = wal.append(LINE);
+            ExecutionException e = assertThrows(ExecutionException.class, () -> late.get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        } finally {
+            wal.close();
+        }
+    }
+}
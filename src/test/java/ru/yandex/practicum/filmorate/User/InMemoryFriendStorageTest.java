@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.User;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.storage.friend.InMemoryFriendStorage;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InMemoryFriendStorageTest {
+
+    @Test
+    public void friendshipIsMutualAndSorted() {
+        InMemoryFriendStorage storage = new InMemoryFriendStorage();
+        storage.addFriend(1, 5);
+        storage.addFriend(1, 3);
+        storage.addFriend(1, 3);
+        storage.addFriend(4, 1);
+
+        assertArrayEquals(new int[]{3, 4, 5}, storage.getFriendIds(1));
+        assertArrayEquals(new int[]{1}, storage.getFriendIds(3));
+
+        storage.removeFriend(3, 1);
+        assertArrayEquals(new int[]{4, 5}, storage.getFriendIds(1));
+        assertArrayEquals(new int[0], storage.getFriendIds(3));
+    }
+
+    @Test
+    public void commonFriendsOfLargeAndSmallLists() {
+        InMemoryFriendStorage storage = new InMemoryFriendStorage();
+        int popular = 1;
+        int regular = 2;
+        int quiet = 3;
+        // Пользователь 1 дружит со всеми чётными, пользователь 2 — с кратными трём
+        for (int id = 10; id < 50_000; id++) {
+            if (id % 2 == 0) {
+                storage.addFriend(popular, id);
+            }
+            if (id % 3 == 0) {
+                storage.addFriend(regular, id);
+            }
+        }
+        storage.addFriend(quiet, 12);
+        storage.addFriend(quiet, 13);
+        storage.addFriend(quiet, 49_998);
+        storage.addFriend(quiet, 49_999);
+
+        int[] expected = IntStream.range(10, 50_000).filter(id -> id % 6 == 0).toArray();
+        assertArrayEquals(expected, storage.getCommonFriendIds(popular, regular));
+        assertArrayEquals(new int[]{12, 49_998}, storage.getCommonFriendIds(quiet, popular));
+        assertArrayEquals(new int[]{12, 49_998}, storage.getCommonFriendIds(regular, quiet));
+    }
+
+    @Test
+    public void concurrentAddAndRemoveKeepFriendshipMutual() throws Exception {
+        InMemoryFriendStorage storage = new InMemoryFriendStorage();
+        int users = 6;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50_000; i++) {
+                    int userId = random.nextInt(1, users + 1);
+                    int friendId = random.nextInt(1, users + 1);
+                    if (userId == friendId) {
+                        continue;
+                    }
+                    if (random.nextBoolean()) {
+                        storage.addFriend(userId, friendId);
+                    } else {
+                        storage.removeFriend(friendId, userId);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        for (int userId = 1; userId <= users; userId++) {
+            for (int friendId : storage.getFriendIds(userId)) {
+                assertTrue(Arrays.binarySearch(storage.getFriendIds(friendId), userId) >= 0,
+                        "Дружба " + userId + " -> " + friendId + " не взаимна");
+            }
+        }
+        int links = IntStream.rangeClosed(1, users).map(id -> storage.getFriendIds(id).length).sum();
+        assertEquals(0, links % 2);
+    }
+
+}
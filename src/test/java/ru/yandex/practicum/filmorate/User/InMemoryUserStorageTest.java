@@ -0,0 +1,123 @@
+package ru.yandex.practicum.filmorate.User;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.exception.ConflictException;
+import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.storage.user.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InMemoryUserStorageTest {
+
+    private static final int THREADS = 8;
+    private static final int USERS_PER_THREAD = 5_000;
+
+    @Test
+    public void concurrentAddsAndUpdatesKeepEveryUser() throws Exception {
+        InMemoryUserStorage storage = new InMemoryUserStorage();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < USERS_PER_THREAD; i++) {
+                        User added = storage.add(user("user" + thread + "_" + i));
+                        User renamed = user("renamed" + thread + "_" + i);
+                        renamed.setId(added.getId());
+                        assertTrue(storage.update(renamed).isPresent());
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertTrue(failures.isEmpty(), "Ошибки в потоках: " + failures);
+
+        List<User> users = storage.getAll();
+        assertEquals(THREADS * USERS_PER_THREAD, users.size());
+        Set<Integer> ids = new HashSet<>();
+        for (User user : users) {
+            assertTrue(ids.add(user.getId()), "Повторяющийся id " + user.getId());
+            assertTrue(user.getLogin().startsWith("renamed"), "Потеряно обновление пользователя " + user.getId());
+        }
+    }
+
+    @Test
+    public void takenLoginOrEmailIsRejected() {
+        InMemoryUserStorage storage = new InMemoryUserStorage();
+        storage.add(user("first"));
+        User second = storage.add(user("second"));
+
+        User sameLogin = user("first");
+        sameLogin.setEmail("other@example.com");
+        assertThrows(ConflictException.class, () -> storage.add(sameLogin));
+
+        User sameEmail = user("third");
+        sameEmail.setEmail(" FIRST@Example.com ");
+        assertThrows(ConflictException.class, () -> storage.add(sameEmail));
+
+        User update = user("first");
+        update.setId(second.getId());
+        assertThrows(ConflictException.class, () -> storage.update(update));
+        assertEquals("second", storage.findById(second.getId()).orElseThrow().getLogin());
+
+        User released = user("released");
+        released.setId(second.getId());
+        storage.update(released);
+        assertEquals("second", storage.add(user("second")).getLogin());
+    }
+
+    @Test
+    public void concurrentClaimsOfSameLoginLetOnlyOneWin() throws Exception {
+        InMemoryUserStorage storage = new InMemoryUserStorage();
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < THREADS * 4; t++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    storage.add(user("contested"));
+                } catch (ConflictException e) {
+                    conflicts.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(1, storage.size());
+        assertEquals(THREADS * 4 - 1, conflicts.get());
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(login + "@example.com");
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -2,18 +2,32 @@ package ru.yandex.practicum.filmorate.User;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
-import org.mockito.MockitoAnnotations;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import ru.yandex.practicum.audit.AuditLog;
+import ru.yandex.practicum.audit.AuditProperties;
 import ru.yandex.practicum.controller.UserController;
+import ru.yandex.practicum.controller.JsonResponseCache;
+import ru.yandex.practicum.feed.ChangeFeed;
+import ru.yandex.practicum.feed.FeedProperties;
 import ru.yandex.practicum.model.User;
+import ru.yandex.practicum.service.BatchImporter;
+import ru.yandex.practicum.service.UserService;
+import ru.yandex.practicum.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.storage.friend.InMemoryFriendStorage;
+import ru.yandex.practicum.storage.like.InMemoryLikeStorage;
+import ru.yandex.practicum.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.validation.ReflectiveEntityValidator;
 
 import java.time.LocalDate;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -24,15 +38,32 @@ public class UserControllerTest {
 
     private MockMvc mockMvc;
 
-    @InjectMocks
     private UserController userController;
 
+    private AuditLog auditLog;
+
+    private ChangeFeed changeFeed;
+
     @BeforeEach
     public void setUp() {
-        MockitoAnnotations.openMocks(this);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        BatchImporter batchImporter = new BatchImporter(objectMapper,
+                new ReflectiveEntityValidator(Validation.buildDefaultValidatorFactory().getValidator()));
+        JsonResponseCache jsonCache = new JsonResponseCache(objectMapper, DataSize.ofMegabytes(16));
+        auditLog = new AuditLog(new AuditProperties());
+        changeFeed = new ChangeFeed(new FeedProperties(), jsonCache::encode);
+        userController = new UserController(new UserService(new InMemoryUserStorage(),
+                new InMemoryFriendStorage(), batchImporter, new InMemoryFilmStorage(), new InMemoryLikeStorage()),
+                objectMapper, auditLog, jsonCache, changeFeed);
         mockMvc = MockMvcBuilders.standaloneSetup(userController).build();
     }
 
+    @AfterEach
+    public void tearDown() {
+        changeFeed.close();
+        auditLog.close();
+    }
+
     @Test
     public void addUserValidUserReturnsCreated() throws Exception {
         User user = new User();
@@ -131,4 +162,51 @@ public class UserControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    public void addUsersBatchReportsTakenLogins() throws Exception {
+        String body = "["
+                + "{\"email\":\"a@example.com\",\"login\":\"alpha\",\"birthday\":\"2000-01-01\"},"
+                + "{\"email\":\"b@example.com\",\"login\":\"alpha\",\"birthday\":\"2000-01-01\"},"
+                + "{\"email\":\"not-an-email\",\"login\":\"gamma\",\"birthday\":\"2000-01-01\"}"
+                + "]";
+
+        mockMvc.perform(post("/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[0].index").value(1))
+                .andExpect(jsonPath("$.errors[0].errors.error").value("Логин alpha уже используется"))
+                .andExpect(jsonPath("$.errors[1].errors.email").value("Электронная почта должна содержать символ @"));
+        mockMvc.perform(get("/users"))
+                .andExpect(jsonPath("$[0].name").value("alpha"));
+    }
+
+    @Test
+    public void commonFriendsAreSharedByBothUsers() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            User user = new User();
+            user.setEmail("friend" + i + "@example.com");
+            user.setLogin("friend" + i);
+            user.setBirthday(LocalDate.of(2000, 1, 1));
+            userController.addUser(user);
+        }
+        mockMvc.perform(put("/users/1/friends/3")).andExpect(status().isOk());
+        mockMvc.perform(put("/users/1/friends/4")).andExpect(status().isOk());
+        mockMvc.perform(put("/users/2/friends/3")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/3/friends"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[1].id").value(2));
+        mockMvc.perform(get("/users/1/friends/common/2"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].login").value("friend3"));
+
+        mockMvc.perform(delete("/users/3/friends/2")).andExpect(status().isOk());
+        mockMvc.perform(get("/users/1/friends/common/2"))
+                .andExpect(jsonPath("$.length()").value(0));
+    }
 }